@@ -0,0 +1,64 @@
+package chess.benchmarks;
+
+import chess.internal.Board;
+import chess.internal.Snapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures publishing positions to a {@link Board}, alternating between two
+ * positions so that every call changes a few squares.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    private String[][][] sources;
+
+    private Snapshot[] snapshots;
+
+    private Board board;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        this.sources = new String[][][] { Positions.standard(), Positions.opening() };
+        this.snapshots = new Snapshot[] { Snapshot.parse(this.sources[0]), Snapshot.parse(this.sources[1]) };
+        this.board = new Board(this.sources[0]);
+    }
+
+    /**
+     * Parses and publishes a {@code String[][]}, as {@code Schach.zeige} does.
+     */
+    @Benchmark
+    public long apply() {
+        final long result = this.board.apply(this.sources[this.index ^= 1]);
+        this.board.clean(result);
+        return result;
+    }
+
+    /**
+     * Publishes an already parsed position.
+     */
+    @Benchmark
+    public long publish() {
+        final long result = this.board.publish(this.snapshots[this.index ^= 1]);
+        this.board.clean(result);
+        return result;
+    }
+}
@@ -0,0 +1,96 @@
+package chess.benchmarks;
+
+import chess.internal.InputOutputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link InputOutputStream} in bytes per
+ * millisecond, both on a single thread and between a writer and a reader.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class InputOutputStreamBenchmark {
+
+    /**
+     * Counts the bytes moved per thread, which JMH reports as a rate.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.bytes = 0L;
+        }
+    }
+
+    @Param({ "64", "4096" })
+    public int chunk;
+
+    private InputOutputStream stream;
+
+    private byte[] in;
+
+    private byte[] out;
+
+    @Setup
+    public void setup() {
+        this.stream = new InputOutputStream();
+        this.in = new byte[this.chunk];
+        this.out = new byte[this.chunk];
+    }
+
+    /**
+     * Inserts a chunk and reads it back on the same thread, which never blocks.
+     */
+    @Benchmark
+    @Group("roundTrip")
+    public int roundTrip(final Bytes counter) {
+        this.stream.insert(this.in, 0, this.chunk);
+        final int result = this.stream.read(this.out, 0, this.chunk);
+        counter.bytes += result;
+        return result;
+    }
+
+    /**
+     * Offers chunks without blocking, so that the writer cannot hang once the
+     * reader has stopped at the end of an iteration; only the bytes read count.
+     */
+    @Benchmark
+    @Group("transfer")
+    @GroupThreads(1)
+    public int write() {
+        return this.stream.offer(this.in, 0, this.chunk);
+    }
+
+    @Benchmark
+    @Group("transfer")
+    @GroupThreads(1)
+    public int read(final Bytes counter) {
+        final int result = this.stream.poll(this.out, 0, this.chunk);
+        counter.bytes += result;
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+package chess.benchmarks;
+
+/**
+ * The positions shared by the benchmarks.
+ */
+final class Positions {
+
+    /**
+     * Returns the standard position as passed to {@code Schach.zeige}, i.e. indexed
+     * by {@code [x][y]} with black on the first rank.
+     */
+    static String[][] standard() {
+        final String[][] result = new String[8][8];
+        final String figures = "TSLDKLST";
+        for (int x = 0; x < 8; x++) {
+            result[x][0] = "S" + figures.charAt(x);
+            result[x][1] = "SB";
+            result[x][6] = "WB";
+            result[x][7] = "W" + figures.charAt(x);
+            for (int y = 2; y < 6; y++) {
+                result[x][y] = " ";
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the standard position after 1. e4 e5 with the last move highlighted,
+     * which differs from {@link #standard()} in four squares.
+     */
+    static String[][] opening() {
+        final String[][] result = standard();
+        result[4][1] = " ";
+        result[4][3] = "SBH";
+        result[4][6] = " ";
+        result[4][4] = "WB";
+        return result;
+    }
+
+    private Positions() {
+    }
+}
@@ -0,0 +1,89 @@
+package chess.benchmarks;
+
+import chess.internal.OffscreenRenderer;
+import chess.internal.Renderer;
+import chess.internal.Snapshot;
+import chess.internal.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.EventQueue;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures painting a whole board into an image, both through {@link
+ * OffscreenRenderer} and through {@link Renderer#paint(java.awt.Graphics)},
+ * which ends up in {@code paintComponent}.
+ * <p>
+ * Runs headless; the forked JVM sets {@code java.awt.headless=true}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RendererBenchmark {
+
+    @Param({ "480", "1024" })
+    public int length;
+
+    private Snapshot[] snapshots;
+
+    private BufferedImage image;
+
+    private Graphics2D graphics;
+
+    private Renderer renderer;
+
+    private int index;
+
+    @Setup
+    public void setup() throws InterruptedException, InvocationTargetException {
+        Square.preload();
+        this.snapshots = new Snapshot[] {
+                Snapshot.parse(Positions.standard()),
+                Snapshot.parse(Positions.opening())
+        };
+        this.image = new BufferedImage(this.length, this.length, BufferedImage.TYPE_INT_RGB);
+        this.graphics = this.image.createGraphics();
+        EventQueue.invokeAndWait(() -> {
+            this.renderer = new Renderer();
+            this.renderer.setSize(this.length, this.length);
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage offscreen() {
+        return OffscreenRenderer.render(this.snapshots[this.index ^= 1], this.image);
+    }
+
+    /**
+     * Paints the component on the benchmark thread, bypassing the event queue;
+     * the component is never realized, so no other thread touches it.
+     */
+    @Benchmark
+    public BufferedImage component() {
+        this.renderer.getBoard().publish(this.snapshots[this.index ^= 1]);
+        this.renderer.paint(this.graphics);
+        return this.image;
+    }
+}
@@ -0,0 +1,63 @@
+package chess.benchmarks;
+
+import chess.Schach;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency from calling {@link Schach#zeige(String[][], long)} until
+ * the event dispatch thread has painted the position.
+ * <p>
+ * Requires a display; on a headless machine the benchmark fails in its setup
+ * while the remaining benchmarks run as usual.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SchachBenchmark {
+
+    private String[][][] sources;
+
+    private Schach schach;
+
+    private int index;
+
+    @Setup
+    public void setup() {
+        if (GraphicsEnvironment.isHeadless()) {
+            throw new IllegalStateException("SchachBenchmark requires a display");
+        }
+        Schach.vorladen();
+        this.sources = new String[][][] { Positions.standard(), Positions.opening() };
+        // never closed, since closing the last board exits the forked JVM
+        this.schach = new Schach();
+        this.schach.zeige(this.sources[0], 0L);
+    }
+
+    /**
+     * Shows the next position without waiting, then waits for the event queue to
+     * drain, which includes the repaint requested by {@code zeige}.
+     */
+    @Benchmark
+    public void zeige() throws InterruptedException, InvocationTargetException {
+        this.schach.zeige(this.sources[this.index ^= 1], 0L);
+        EventQueue.invokeAndWait(() -> {
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package chess.benchmarks;
+
+import chess.internal.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding square descriptors, mixing pieces, highlighted pieces, empty
+ * squares and invalid descriptors.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SquareBenchmark {
+
+    private static final String[] DESCRIPTORS = {
+            "WB", "SK", "WDH", "SLH", " ", "", null, "WX", "S", "wt", "STH", "WSH", "SB", "WK", "XX", "SDX"
+    };
+
+    @Setup
+    public void setup() {
+        // icons are loaded once up front rather than in the first iteration
+        Square.preload();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void create(final Blackhole blackhole) {
+        for (final String descriptor : DESCRIPTORS) {
+            blackhole.consume(Square.create(descriptor));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void validate(final Blackhole blackhole) {
+        for (final String descriptor : DESCRIPTORS) {
+            blackhole.consume(Square.validate(descriptor));
+        }
+    }
+}
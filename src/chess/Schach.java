@@ -1,11 +1,34 @@
 package chess;
 
+import chess.engine.Evaluator;
+import chess.engine.PieceSquareEvaluator;
+import chess.engine.Position;
+import chess.internal.Animator;
 import chess.internal.Board;
+import chess.internal.Commands;
+import chess.internal.Mailbox;
+import chess.internal.MoveCommand;
+import chess.internal.Metrics;
+import chess.internal.MetricsBean;
 import chess.internal.Pipeline;
+import chess.internal.Player;
+import chess.internal.Recorder;
+import chess.internal.Renderer;
+import chess.internal.Snapshot;
+import chess.internal.Square;
+import chess.internal.Team;
+import chess.internal.TerminalRenderer;
 import chess.internal.Window;
 
 import javax.swing.JFrame;
+import java.awt.GraphicsEnvironment;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Eine Klasse, welche eine acht mal acht Reihung des komplexen Datentyps {@code
@@ -24,11 +47,186 @@ public class Schach implements AutoCloseable {
             new String[] { "ST", "SB", " ", " ", " ", " ", "WB", "WT" }
     };
 
+    /**
+     * Kennzeichnet in der kompakten Kodierung ein leeres Feld.
+     */
+    public static final byte LEER = 0;
+
+    public static final byte BAUER = 1;
+
+    public static final byte SPRINGER = 2;
+
+    public static final byte LAEUFER = 3;
+
+    public static final byte TURM = 4;
+
+    public static final byte DAME = 5;
+
+    public static final byte KOENIG = 6;
+
+    /**
+     * Kennzeichnet in der kompakten Kodierung eine weiße Figur.
+     */
+    public static final byte WEISS = 0;
+
+    /**
+     * Kennzeichnet in der kompakten Kodierung eine schwarze Figur.
+     */
+    public static final byte SCHWARZ = Snapshot.BLACK;
+
+    /**
+     * Kennzeichnet in der kompakten Kodierung ein markiertes Feld.
+     */
+    public static final byte MARKIERT = Snapshot.HIGHLIGHT;
+
+    /**
+     * Der Name der Systemeigenschaft, welche mit dem Wert {@code true} {@link
+     * #vorladen()} beim Laden der Klasse auslöst.
+     */
+    public static final String VORLADEN = "chess.preload";
+
+    /**
+     * Der Name der Systemeigenschaft, welche die Ausgabe festlegt: mit dem Wert
+     * {@code terminal} werden Stellungen mittels ANSI-Steuerzeichen auf der
+     * Standardausgabe gezeichnet, z.B. für Verbindungen über SSH, mit dem Wert
+     * {@code fenster} in einem Fenster. Ohne Angabe wird das Terminal nur dann
+     * gewählt, wenn kein Bildschirm zur Verfügung steht.
+     */
+    public static final String AUSGABE = "chess.output";
+
+    /**
+     * Der Name der Systemeigenschaft, welche mit dem Wert {@code true} die
+     * Messwerte bereits beim Laden der Klasse über JMX zur Verfügung stellt,
+     * statt erst beim ersten Aufruf von {@link #messwerte()}.
+     */
+    public static final String JMX = "chess.jmx";
+
+    private static final Evaluator BEWERTUNG = new PieceSquareEvaluator();
+
+    /**
+     * The terminal all positions are drawn to or {@code null} if they are shown
+     * in the window.
+     */
+    private static final TerminalRenderer TERMINAL = createTerminal();
+
     private static boolean initialized;
 
     static {
         initialized = false;
         Pipeline.initialize();
+        if (Boolean.getBoolean(VORLADEN)) {
+            try {
+                vorladen();
+            } catch (final IllegalArgumentException ex) {
+                // fallback to loading on demand
+            }
+        }
+        if (Boolean.getBoolean(JMX)) {
+            MetricsBean.register();
+        }
+    }
+
+    /**
+     * Lädt sämtliche Figurenbilder parallel im Voraus, sodass die ersten
+     * Darstellungen nicht durch das Laden verzögert werden.
+     * <p>
+     * Der Aufruf ist optional und hat bei Wiederholung keine weitere Wirkung.
+     *
+     * @return die zum Laden benötigte Zeit in Millisekunden.
+     * @throws IllegalArgumentException erhoben wenn ein Figurenbild nicht
+     * geladen werden kann; ohne Vorladen werden solche Figuren als leere Felder
+     * dargestellt.
+     */
+    public static long vorladen() {
+        return Square.preload() / 1_000_000L;
+    }
+
+    /**
+     * Liefert die Zeit in Millisekunden vom Programmstart bis zur ersten
+     * Darstellung eines Schachbretts oder {@code -1}, falls bislang keines
+     * dargestellt wurde.
+     */
+    public static long ersteDarstellung() {
+        return Renderer.getFirstFrameTime();
+    }
+
+    /**
+     * Liefert eine Zusammenfassung der bisherigen Messwerte vom Aufruf von {@code
+     * zeige} bis zur Darstellung: die Dauer der Übernahme einer Stellung, die
+     * Wartezeit auf den Ereignis-Thread und die Dauer des Zeichnens, jeweils in
+     * Nanosekunden, sowie die Anzahl verworfener und zusammengefasster
+     * Stellungen.
+     * <p>
+     * Ab dem ersten Aufruf, oder von Beginn an mit der Systemeigenschaft {@link
+     * #JMX}, stehen dieselben Werte über JMX unter dem Namen {@value
+     * MetricsBean#NAME} zur Verfügung; die Anmeldung erfolgt im Hintergrund.
+     */
+    public static String messwerte() {
+        MetricsBean.register();
+        return Metrics.snapshot().toString();
+    }
+
+    /**
+     * Zeichnet die zuletzt im Terminal angezeigte Stellung vollständig neu, z.B.
+     * nachdem der Bildschirm gelöscht wurde; ohne Ausgabe im Terminal hat der
+     * Aufruf keine Wirkung.
+     * <p>
+     * Ausgaben mittels {@code System.out} erscheinen unterhalb des Bretts und
+     * verschieben es nicht, sodass dies nur selten nötig ist.
+     */
+    public static void zeichneNeu() {
+        if (TERMINAL != null) {
+            try {
+                TERMINAL.redraw();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Bewertet die durch {@code brett} beschriebene Stellung anhand von Material
+     * und Figurenstellung.
+     *
+     * @param brett eine acht mal acht Reihung.
+     * @return die Bewertung in Hundertstel Bauern aus Sicht von Weiß.
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist, insbesondere wenn nicht jede Seite genau einen König
+     * hat.
+     */
+    public static int bewerte(final String[][] brett) {
+        return BEWERTUNG.evaluate(Position.of(parse(brett), Team.WHITE));
+    }
+
+    private static TerminalRenderer createTerminal() {
+        final String output = System.getProperty(AUSGABE);
+        final boolean terminal = output == null
+                ? GraphicsEnvironment.isHeadless()
+                : "terminal".equalsIgnoreCase(output);
+        if (!terminal) {
+            return null;
+        }
+        final TerminalRenderer result = new TerminalRenderer(System.out);
+        // hands the whole screen back to the shell once the program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                result.release();
+            } catch (final IOException ex) {
+                // the terminal is gone already
+            }
+        }, "TerminalRenderer"));
+        return result;
+    }
+
+    /**
+     * Draws {@code snapshot} to {@link #TERMINAL} on the calling thread.
+     */
+    private static void draw(final Snapshot snapshot) {
+        try {
+            TERMINAL.render(snapshot);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     /**
@@ -38,6 +236,76 @@ public class Schach implements AutoCloseable {
         return initialized;
     }
 
+    /**
+     * Prüft {@code brett} und überführt es in eine unveränderliche Momentaufnahme.
+     *
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist.
+     */
+    private static Snapshot parse(final String[][] brett) {
+        if (brett == null) {
+            throw new IllegalArgumentException("brett == null");
+        } else {
+            if (brett.length != Board.SIZE) {
+                throw new IllegalArgumentException("brett.length != " + Board.SIZE);
+            } else {
+                for (int i = 0; i < brett.length; i++) {
+                    if (brett[i].length != brett.length) {
+                        throw new IllegalArgumentException("brett[" + i + "].length != " + brett.length);
+                    }
+                }
+                // parsed on the calling thread, the result is published atomically
+                return Snapshot.parse(brett);
+            }
+        }
+    }
+
+    /**
+     * Publishes {@code snapshot} and brings it to the screen; must be called on the
+     * event dispatch thread.
+     *
+     * @param immediately {@code true} to paint right away instead of scheduling a
+     * repaint that may be coalesced with subsequent ones.
+     */
+    private static void display(final Window owner,
+                                final Renderer renderer,
+                                final Snapshot snapshot,
+                                final boolean immediately) {
+        final JFrame peer = owner.getPeer();
+        renderer.getAnimator().skip();
+        // only the squares changed since the last paint are repainted
+        final long dirty = renderer.getBoard().publish(snapshot);
+        renderer.getHistory().push(snapshot);
+        if (!peer.isVisible()) {
+            peer.setVisible(true);
+        } else if (immediately) {
+            for (long bits = dirty; bits != 0L; bits &= bits - 1L) {
+                final int index = Long.numberOfTrailingZeros(bits);
+                renderer.paintImmediately(renderer.getTile(index % Board.SIZE, index / Board.SIZE));
+            }
+        } else {
+            renderer.repaint(dirty);
+        }
+    }
+
+    private Mailbox<Snapshot> mailbox;
+
+    private volatile boolean behalten;
+
+    private Recorder recorder;
+
+    /**
+     * The tile of this instance within the window, attached on first use; only
+     * accessed on the event dispatch thread.
+     */
+    private Renderer renderer;
+
+    /**
+     * The moves entered on {@link #renderer}, cached so that polling them does
+     * not involve the event dispatch thread.
+     */
+    private volatile Commands commands;
+
     /**
      * Erstellt eine neue Instanz der Klasse und setzt {@code brett} auf die
      * Standardposition.
@@ -81,44 +349,7 @@ public class Schach implements AutoCloseable {
      * Weise ungültig ist.
      */
     public void zeige(final String[][] brett, final long auszeit) {
-        if (brett == null) {
-            throw new IllegalArgumentException("brett == null");
-        } else {
-            if (brett.length != Board.SIZE) {
-                throw new IllegalArgumentException("brett.length != " + Board.SIZE);
-            } else {
-                final String[][] copy = new String[brett.length][brett.length];
-                for (int i = 0; i < brett.length; i++) {
-                    final String[] chunk = brett[i];
-                    if (chunk.length != brett.length) {
-                        throw new IllegalArgumentException("brett[" + i + "].length != " + brett.length);
-                    } else {
-                        System.arraycopy(chunk, 0, copy[i], 0, brett.length);
-                    }
-                }
-                initialized = true;
-                Window.current().postSync((final Window owner) -> {
-                    try {
-                        final JFrame peer = owner.getPeer();
-                        owner.getRenderer().getBoard().apply(copy);
-                        if (peer.isVisible()) {
-                            peer.repaint();
-                        } else {
-                            peer.setVisible(true);
-                        }
-                    } catch (final IllegalArgumentException ex) {
-                        System.err.println("Das Schachbrett konnte wegen eines Fehlers nicht aktualisiert werden.");
-                    }
-                });
-                try {
-                    if (auszeit > 0L) {
-                        Thread.sleep(auszeit);
-                    }
-                } catch (final InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
+        this.show(parse(brett), auszeit);
     }
 
     /**
@@ -132,12 +363,417 @@ public class Schach implements AutoCloseable {
         this.zeige(brett, 500L);
     }
 
+    /**
+     * Zeigt das kompakt kodierte {@code brett} auf einer grafischen Oberfläche an
+     * und wartet {@code auszeit} Millisekunden.
+     * <p>
+     * Jedes der 64 Elemente beschreibt ein Feld: das Feld {@code (x, y)}, welches
+     * {@code brett[x][y]} in der Darstellung als {@code String[][]} entspricht,
+     * liegt an Index {@code 8 * y + x}. Ein Element setzt sich bitweise aus einer
+     * Figur ({@link #LEER}, {@link #BAUER}, {@link #SPRINGER}, {@link #LAEUFER},
+     * {@link #TURM}, {@link #DAME} oder {@link #KOENIG}), einer Farbe ({@link
+     * #WEISS} oder {@link #SCHWARZ}) sowie optional {@link #MARKIERT} zusammen,
+     * z.B. {@code SCHWARZ | KOENIG | MARKIERT}.
+     *
+     * @param brett die anzuzeigenden 64 Felder.
+     * @param auszeit die zu wartende Zeit in Millisekunden.
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist.
+     */
+    public void zeige(final byte[] brett, final long auszeit) {
+        this.show(Snapshot.decode(brett), auszeit);
+    }
+
+    /**
+     * Zeigt das kompakt kodierte {@code brett} auf einer grafischen Oberfläche an
+     * und wartet eine Sekunde.
+     *
+     * @param brett die anzuzeigenden 64 Felder.
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist.
+     * @see #zeige(byte[], long)
+     */
+    public void zeige(final byte[] brett) {
+        this.zeige(brett, 500L);
+    }
+
+    /**
+     * Zeigt die als Bitboards beschriebene Stellung auf einer grafischen
+     * Oberfläche an und wartet {@code auszeit} Millisekunden.
+     * <p>
+     * {@code bitboards} umfasst 13 Elemente: je eines für Bauer, Springer, Läufer,
+     * Turm, Dame und König von Weiß, dann dieselben sechs für Schwarz und zuletzt
+     * eines für die markierten Felder. Bit {@code 8 * y + x} steht jeweils für das
+     * Feld {@code (x, y)}.
+     *
+     * @param bitboards die anzuzeigende Stellung.
+     * @param auszeit die zu wartende Zeit in Millisekunden.
+     * @throws IllegalArgumentException erhoben wenn {@code bitboards} in
+     * irgendeiner Weise ungültig ist, z.B. zwei Figuren dasselbe Feld belegen.
+     */
+    public void zeige(final long[] bitboards, final long auszeit) {
+        this.show(Snapshot.of(bitboards), auszeit);
+    }
+
+    /**
+     * Zeigt die als Bitboards beschriebene Stellung auf einer grafischen
+     * Oberfläche an und wartet eine Sekunde.
+     *
+     * @param bitboards die anzuzeigende Stellung.
+     * @throws IllegalArgumentException erhoben wenn {@code bitboards} in
+     * irgendeiner Weise ungültig ist.
+     * @see #zeige(long[], long)
+     */
+    public void zeige(final long[] bitboards) {
+        this.zeige(bitboards, 500L);
+    }
+
+    private void show(final Snapshot snapshot, final long auszeit) {
+        this.record(snapshot);
+        this.present(snapshot, auszeit);
+    }
+
+    private void present(final Snapshot snapshot, final long auszeit) {
+        if (TERMINAL != null) {
+            draw(snapshot);
+        } else {
+            initialized = true;
+            Window.current().postSync(
+                    (final Window owner) -> display(owner, this.getRenderer(owner), snapshot, false));
+        }
+        try {
+            if (auszeit > 0L) {
+                Thread.sleep(auszeit);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Übergibt {@code brett} der grafischen Oberfläche, ohne auf deren Darstellung
+     * zu warten.
+     * <p>
+     * Treffen Stellungen schneller ein, als sie gezeichnet werden können, wird
+     * standardmäßig nur die jeweils neueste angezeigt; siehe {@link
+     * #behalteZwischenstaende(boolean)}.
+     *
+     * @param brett die anzuzeigende acht mal acht Reihung.
+     * @return ein {@code Future}, das mit {@code true} abgeschlossen wird, sobald
+     * {@code brett} angezeigt wurde, oder mit {@code false}, falls es zugunsten
+     * einer neueren Stellung verworfen wurde.
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist.
+     */
+    public Future<Boolean> zeigeAsynchron(final String[][] brett) {
+        return this.submit(parse(brett));
+    }
+
+    /**
+     * Übergibt das kompakt kodierte {@code brett} der grafischen Oberfläche, ohne
+     * auf deren Darstellung zu warten.
+     *
+     * @param brett die anzuzeigenden 64 Felder.
+     * @return ein {@code Future} wie bei {@link #zeigeAsynchron(String[][])}.
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist.
+     * @see #zeige(byte[], long)
+     */
+    public Future<Boolean> zeigeAsynchron(final byte[] brett) {
+        return this.submit(Snapshot.decode(brett));
+    }
+
+    /**
+     * Übergibt die als Bitboards beschriebene Stellung der grafischen Oberfläche,
+     * ohne auf deren Darstellung zu warten.
+     *
+     * @param bitboards die anzuzeigende Stellung.
+     * @return ein {@code Future} wie bei {@link #zeigeAsynchron(String[][])}.
+     * @throws IllegalArgumentException erhoben wenn {@code bitboards} in
+     * irgendeiner Weise ungültig ist.
+     * @see #zeige(long[], long)
+     */
+    public Future<Boolean> zeigeAsynchron(final long[] bitboards) {
+        return this.submit(Snapshot.of(bitboards));
+    }
+
+    private Future<Boolean> submit(final Snapshot snapshot) {
+        this.record(snapshot);
+        if (TERMINAL != null) {
+            // only the changed squares are written, which hardly ever blocks
+            draw(snapshot);
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+        initialized = true;
+        return this.getMailbox().submit(snapshot);
+    }
+
+    /**
+     * Bewegt die Figuren von der zuletzt angezeigten Stellung fließend zu {@code
+     * brett}, ohne auf die Darstellung zu warten.
+     * <p>
+     * Welche Figuren sich bewegen, ergibt sich aus dem Vergleich beider
+     * Stellungen; geschlagene Figuren verschwinden, sobald die schlagende Figur
+     * ihr Ziel erreicht. Aufeinanderfolgende Aufrufe werden nacheinander
+     * abgespielt. Kommt der Rechner nicht hinterher, werden einzelne Bilder
+     * ausgelassen, die Dauer bleibt jedoch erhalten. Im Terminal wird {@code
+     * brett} ohne Animation angezeigt.
+     *
+     * @param brett die anzuzeigende acht mal acht Reihung.
+     * @param dauer die Dauer der Bewegung in Millisekunden.
+     * @return ein {@code Future}, das mit {@code true} abgeschlossen wird, sobald
+     * {@code brett} vollständig angezeigt wurde.
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist.
+     */
+    public Future<Boolean> zeigeAnimiert(final String[][] brett, final long dauer) {
+        final Snapshot snapshot = parse(brett);
+        this.record(snapshot);
+        if (TERMINAL != null) {
+            draw(snapshot);
+            return CompletableFuture.completedFuture(Boolean.TRUE);
+        }
+        initialized = true;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        Window.current().postAsync((final Window owner) -> {
+            final Renderer renderer = this.getRenderer(owner);
+            renderer.getHistory().push(snapshot);
+            renderer.getAnimator().enqueue(snapshot, dauer, result);
+            final JFrame peer = owner.getPeer();
+            if (!peer.isVisible()) {
+                peer.setVisible(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Bewegt die Figuren wie {@link #zeigeAnimiert(String[][], long)} binnen
+     * {@value Animator#DEFAULT_DURATION} Millisekunden.
+     *
+     * @param brett die anzuzeigende acht mal acht Reihung.
+     * @return ein {@code Future} wie bei {@link #zeigeAnimiert(String[][], long)}.
+     * @throws IllegalArgumentException erhoben wenn {@code brett} in irgendeiner
+     * Weise ungültig ist.
+     */
+    public Future<Boolean> zeigeAnimiert(final String[][] brett) {
+        return this.zeigeAnimiert(brett, Animator.DEFAULT_DURATION);
+    }
+
+    /**
+     * Wartet, bis auf dem Brett dieser Instanz ein Zug eingegeben wird, und
+     * liefert ihn.
+     * <p>
+     * Ein Zug wird entweder durch Anklicken zweier Felder eingegeben oder getippt
+     * und mit der Eingabetaste bestätigt, z.B. {@code e2e4}, {@code e2-e4} oder
+     * als Koordinaten wie auf dem Brett beschriftet, {@code 4,6 4,4}. Getippte
+     * Züge gehen an das zuletzt angeklickte Brett. Sobald Züge mittels dieser
+     * Methode, {@link #pruefeZug()} oder {@link #beiZug(Consumer)} abgefragt
+     * werden, erscheinen sie nicht mehr auf {@code System.in}.
+     *
+     * @return der eingegebene Zug.
+     * @throws InterruptedException erhoben wenn der aufrufende Thread während
+     * des Wartens unterbrochen wird.
+     * @throws IllegalStateException erhoben wenn die Ausgabe im Terminal
+     * erfolgt, wo Züge weiterhin über {@code System.in} gelesen werden.
+     */
+    public Zug naechsterZug() throws InterruptedException {
+        return convert(this.getCommands().take());
+    }
+
+    /**
+     * Liefert den ältesten noch nicht abgefragten Zug, ohne zu warten.
+     *
+     * @return der Zug oder {@code null}, falls keiner eingegeben wurde.
+     * @throws IllegalStateException erhoben wenn die Ausgabe im Terminal
+     * erfolgt.
+     * @see #naechsterZug()
+     */
+    public Zug pruefeZug() {
+        final MoveCommand command = this.getCommands().poll();
+        return command != null ? convert(command) : null;
+    }
+
+    /**
+     * Ruft {@code aktion} fortan für jeden auf dem Brett dieser Instanz
+     * eingegebenen Zug auf, und zwar im Ereignis-Thread der Oberfläche, weshalb
+     * {@code aktion} zügig zurückkehren sollte. Solange eine Aktion registriert
+     * ist, liefern {@link #naechsterZug()} und {@link #pruefeZug()} keine neuen
+     * Züge.
+     *
+     * @param aktion die für jeden Zug auszuführende Aktion.
+     * @throws IllegalArgumentException erhoben wenn {@code aktion} {@code null}
+     * ist.
+     * @throws IllegalStateException erhoben wenn die Ausgabe im Terminal
+     * erfolgt.
+     */
+    public void beiZug(final Consumer<Zug> aktion) {
+        if (aktion == null) {
+            throw new IllegalArgumentException("aktion == null");
+        }
+        this.getCommands().subscribe((final MoveCommand command) -> aktion.accept(convert(command)));
+    }
+
+    private static Zug convert(final MoveCommand command) {
+        return new Zug(command.fromX, command.fromY, command.toX, command.toY,
+                command.source == MoveCommand.Source.MOUSE);
+    }
+
+    /**
+     * Returns the moves entered on the board of this instance, attaching and
+     * showing it first if need be; only the first call waits for the event
+     * dispatch thread.
+     */
+    private Commands getCommands() {
+        final Commands cached = this.commands;
+        if (cached != null) {
+            return cached;
+        }
+        if (TERMINAL != null) {
+            throw new IllegalStateException("Keine Zugereignisse im Terminal");
+        }
+        initialized = true;
+        final Commands result = Window.current().postSync((final Window owner) -> {
+            final JFrame peer = owner.getPeer();
+            if (!peer.isVisible()) {
+                peer.setVisible(true);
+            }
+            return this.getRenderer(owner).getCommands();
+        });
+        this.commands = result;
+        return result;
+    }
+
+    /**
+     * Legt fest, ob mittels {@link #zeigeAsynchron(String[][])} übergebene
+     * Stellungen ausnahmslos angezeigt ({@code true}) oder zugunsten der jeweils
+     * neuesten verworfen werden dürfen ({@code false}).
+     *
+     * @param behalte {@code true} um keine Stellung zu verwerfen.
+     */
+    public synchronized void behalteZwischenstaende(final boolean behalte) {
+        this.behalten = behalte;
+        if (this.mailbox != null) {
+            this.mailbox.setPolicy(behalte ? Mailbox.Policy.ALL : Mailbox.Policy.LATEST);
+        }
+    }
+
+    /**
+     * Zeichnet fortan jede mittels {@code zeige} oder {@code zeigeAsynchron}
+     * übergebene Stellung in der Datei {@code datei} auf, bis {@link
+     * #beendeAufzeichnung()} aufgerufen wird.
+     * <p>
+     * Die Aufzeichnung speichert je Stellung nur die veränderten Felder und in
+     * regelmäßigen Abständen eine vollständige Stellung, sodass sie mittels {@link
+     * #spieleAb(Path, long, long)} ab einer beliebigen Stellung schnell
+     * wiedergegeben werden kann. Eine laufende Aufzeichnung wird zuvor beendet.
+     *
+     * @param datei die zu (über-)schreibende Datei.
+     * @throws IOException erhoben wenn {@code datei} nicht geschrieben werden kann.
+     */
+    public synchronized void zeichneAuf(final Path datei) throws IOException {
+        this.beendeAufzeichnung();
+        this.recorder = new Recorder(datei);
+    }
+
+    /**
+     * Beendet eine laufende Aufzeichnung; hat andernfalls keine Wirkung.
+     *
+     * @throws IOException erhoben wenn die Aufzeichnung nicht abgeschlossen werden
+     * kann.
+     */
+    public synchronized void beendeAufzeichnung() throws IOException {
+        if (this.recorder != null) {
+            final Recorder recorder = this.recorder;
+            this.recorder = null;
+            recorder.close();
+        }
+    }
+
+    /**
+     * Zeigt die in {@code datei} aufgezeichneten Stellungen ab der Stellung mit der
+     * Nummer {@code von} nacheinander an und wartet nach jeder {@code auszeit}
+     * Millisekunden.
+     *
+     * @param datei eine mittels {@link #zeichneAuf(Path)} erstellte Aufzeichnung.
+     * @param von die Nummer der ersten anzuzeigenden Stellung, beginnend bei null.
+     * @param auszeit die zu wartende Zeit in Millisekunden.
+     * @throws IOException erhoben wenn {@code datei} nicht gelesen werden kann.
+     * @throws IllegalArgumentException erhoben wenn {@code datei} weniger als
+     * {@code von + 1} Stellungen enthält.
+     */
+    public void spieleAb(final Path datei, final long von, final long auszeit) throws IOException {
+        final Player player = new Player(datei);
+        for (Snapshot snapshot = player.seek(von); snapshot != null; snapshot = player.next()) {
+            // replayed frames are not recorded again
+            this.present(snapshot, auszeit);
+        }
+    }
+
+    private synchronized void record(final Snapshot snapshot) {
+        if (this.recorder != null) {
+            try {
+                this.recorder.record(snapshot);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    private synchronized Mailbox<Snapshot> getMailbox() {
+        if (this.mailbox == null) {
+            final Window owner = Window.current();
+            this.mailbox = new Mailbox<>(owner,
+                    (final Snapshot snapshot) ->
+                            display(owner, this.getRenderer(owner), snapshot, this.behalten));
+            this.mailbox.setPolicy(this.behalten ? Mailbox.Policy.ALL : Mailbox.Policy.LATEST);
+        }
+        return this.mailbox;
+    }
+
+    /**
+     * Returns the renderer of this instance, attaching one to {@code owner} if
+     * there is none yet; must be called on the event dispatch thread.
+     */
+    private Renderer getRenderer(final Window owner) {
+        if (this.renderer == null) {
+            this.renderer = owner.attach();
+        }
+        return this.renderer;
+    }
+
     @Override
     public void close() {
+        try {
+            this.beendeAufzeichnung();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            this.closeWindow();
+        }
+    }
+
+    /**
+     * Detaches the board of this instance and closes the window once no board is
+     * left.
+     */
+    private void closeWindow() {
+        final Mailbox<Snapshot> mailbox;
+        synchronized (this) {
+            mailbox = this.mailbox;
+            this.mailbox = null;
+        }
+        if (mailbox != null) {
+            // a pending drain would otherwise attach a new tile after detaching
+            mailbox.close();
+        }
+        this.commands = null;
         if (isInitialized()) {
             Window.current().postSync((final Window owner) -> {
                 final JFrame peer = owner.getPeer();
-                if (peer.isVisible()) {
+                final boolean remaining = owner.detach(this.renderer);
+                this.renderer = null;
+                if (!remaining && peer.isVisible()) {
                     peer.dispatchEvent(new WindowEvent(peer, WindowEvent.WINDOW_CLOSING));
                 }
             });
@@ -0,0 +1,58 @@
+package chess;
+
+import chess.internal.Board;
+
+/**
+ * Ein auf der grafischen Oberfläche eingegebener Zug von einem Feld auf ein
+ * anderes.
+ * <p>
+ * Die Felder sind wie die Indizes eines Bretts {@code brett[x][y]} angegeben,
+ * d.h. {@code (0, 0)} entspricht a8 und {@code (7, 7)} entspricht h1.
+ */
+public final class Zug {
+
+    /**
+     * Die Spalte des Ausgangsfelds.
+     */
+    public final int vonX;
+
+    /**
+     * Die Zeile des Ausgangsfelds.
+     */
+    public final int vonY;
+
+    /**
+     * Die Spalte des Zielfelds.
+     */
+    public final int nachX;
+
+    /**
+     * Die Zeile des Zielfelds.
+     */
+    public final int nachY;
+
+    /**
+     * {@code true}, falls der Zug mit der Maus eingegeben wurde, {@code false},
+     * falls er getippt wurde.
+     */
+    public final boolean geklickt;
+
+    Zug(final int vonX, final int vonY, final int nachX, final int nachY, final boolean geklickt) {
+        this.vonX = vonX;
+        this.vonY = vonY;
+        this.nachX = nachX;
+        this.nachY = nachY;
+        this.geklickt = geklickt;
+    }
+
+    /**
+     * Liefert den Zug in algebraischer Notation, z.B. {@code e2e4}.
+     */
+    @Override
+    public String toString() {
+        return new String(new char[] {
+                (char) ('a' + this.vonX), (char) ('0' + Board.SIZE - this.vonY),
+                (char) ('a' + this.nachX), (char) ('0' + Board.SIZE - this.nachY)
+        });
+    }
+}
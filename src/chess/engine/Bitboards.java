@@ -0,0 +1,376 @@
+package chess.engine;
+
+/**
+ * Precomputed attack tables and helpers for bitboards.
+ * <p>
+ * Squares are numbered like the bits of {@link chess.internal.Board}: the square
+ * at {@code (x, y)} is {@code 8 * y + x}, where {@code (0, 0)} is a8 and {@code
+ * (7, 7)} is h1. Sliding attacks are looked up through magic bitboards, whose
+ * multipliers are constants found by {@link #main(String[])}, so that loading
+ * the class only fills the tables.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+
+    public static final long FILE_H = FILE_A << 7;
+
+    /**
+     * The squares of the row at {@code y = 0}, i.e. the eighth rank.
+     */
+    public static final long RANK_8 = 0xFFL;
+
+    public static final long RANK_1 = RANK_8 << 56;
+
+    public static final long[] KNIGHT_ATTACKS = new long[64];
+
+    public static final long[] KING_ATTACKS = new long[64];
+
+    /**
+     * The squares attacked by a pawn of either side, indexed by the side first.
+     */
+    public static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    /**
+     * The squares strictly between two squares on a common line or {@code 0}.
+     */
+    private static final long[] BETWEEN = new long[64 * 64];
+
+    /**
+     * The full line through two squares, including both of them, or {@code 0}.
+     */
+    private static final long[] LINE = new long[64 * 64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+
+    private static final long[] ROOK_MAGICS = {
+            0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+            0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+            0x0000800080204001L, 0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+            0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+            0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+            0x0001818014000800L, 0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+            0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+            0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+            0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+            0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L, 0x8004048102000854L,
+            0x4420802040008006L, 0x0880500020004002L, 0x0801200241050010L, 0x8400080010008080L,
+            0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+            0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+            0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+            0x8044110480002441L, 0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+            0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L, 0x000220920280002DL,
+            0x32040421000B0284L, 0x1002080404000400L, 0x0004160892080040L, 0x2203024206204201L,
+            0x0002404264010200L, 0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+            0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L, 0x0010050080908820L,
+            0x0C90A04490824802L, 0x000200A008210130L, 0x0C08001000204010L, 0x0008000186014480L,
+            0x0601044820080021L, 0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+            0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L, 0x2020120000400440L,
+            0x0108840200802003L, 0x0009070082009492L, 0x020C0C0038424245L, 0xCA44005808210410L,
+            0x8011212000500404L, 0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+            0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L, 0x0242061040002400L,
+            0x90020202400821A0L, 0x00C9009004E01002L, 0x58C2060202023100L, 0x0000012214040800L,
+            0x0210846810100200L, 0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+            0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L, 0x2080001042020004L,
+            0x0544021020288104L, 0x1103501408083020L, 0x4010451004960002L, 0x003010091C44902CL,
+            0x0102402884202000L, 0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+            0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L, 0x0045010808008680L
+    };
+
+    private static final int[] ROOK_SHIFTS = new int[64];
+
+    private static final int[] BISHOP_SHIFTS = new int[64];
+
+    private static final int[] ROOK_OFFSETS = new int[64];
+
+    private static final int[] BISHOP_OFFSETS = new int[64];
+
+    private static final long[] ROOK_TABLE;
+
+    private static final long[] BISHOP_TABLE;
+
+    private static final int[][] ROOK_DIRECTIONS = { { 1, 0 }, { -1, 0 }, { 0, 1 }, { 0, -1 } };
+
+    private static final int[][] BISHOP_DIRECTIONS = { { 1, 1 }, { 1, -1 }, { -1, 1 }, { -1, -1 } };
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            final int x = square & 7;
+            final int y = square >>> 3;
+            KNIGHT_ATTACKS[square] = steps(x, y, new int[][] {
+                    { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 },
+                    { -1, -2 }, { -2, -1 }, { -2, 1 }, { -1, 2 } });
+            KING_ATTACKS[square] = steps(x, y, new int[][] {
+                    { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 },
+                    { -1, 0 }, { -1, -1 }, { 0, -1 }, { 1, -1 } });
+            // white pawns move towards y = 0
+            PAWN_ATTACKS[0][square] = steps(x, y, new int[][] { { -1, -1 }, { 1, -1 } });
+            PAWN_ATTACKS[1][square] = steps(x, y, new int[][] { { -1, 1 }, { 1, 1 } });
+            ROOK_MASKS[square] = relevant(x, y, ROOK_DIRECTIONS);
+            BISHOP_MASKS[square] = relevant(x, y, BISHOP_DIRECTIONS);
+        }
+        ROOK_TABLE = new long[offsets(ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS)];
+        BISHOP_TABLE = new long[offsets(BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS)];
+        for (int square = 0; square < 64; square++) {
+            fill(square, ROOK_MAGICS[square], ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS,
+                    ROOK_TABLE, ROOK_DIRECTIONS);
+            fill(square, BISHOP_MAGICS[square], BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS,
+                    BISHOP_TABLE, BISHOP_DIRECTIONS);
+        }
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                if (from == to) {
+                    continue;
+                }
+                final long target = 1L << to;
+                if ((rookAttacks(from, 0L) & target) != 0L) {
+                    BETWEEN[from << 6 | to] = rookAttacks(from, target) & rookAttacks(to, 1L << from);
+                    LINE[from << 6 | to] = (rookAttacks(from, 0L) & rookAttacks(to, 0L))
+                            | (1L << from) | target;
+                } else if ((bishopAttacks(from, 0L) & target) != 0L) {
+                    BETWEEN[from << 6 | to] = bishopAttacks(from, target) & bishopAttacks(to, 1L << from);
+                    LINE[from << 6 | to] = (bishopAttacks(from, 0L) & bishopAttacks(to, 0L))
+                            | (1L << from) | target;
+                }
+            }
+        }
+    }
+
+    public static long rookAttacks(final int square, final long occupancy) {
+        final int index = (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[ROOK_OFFSETS[square] + index];
+    }
+
+    public static long bishopAttacks(final int square, final long occupancy) {
+        final int index = (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + index];
+    }
+
+    public static long queenAttacks(final int square, final long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Returns the squares strictly between {@code from} and {@code to} if both share
+     * a rank, file or diagonal; otherwise {@code 0}.
+     */
+    public static long between(final int from, final int to) {
+        return BETWEEN[from << 6 | to];
+    }
+
+    /**
+     * Returns every square of the rank, file or diagonal through {@code from} and
+     * {@code to}; {@code 0} if they share none.
+     */
+    public static long line(final int from, final int to) {
+        return LINE[from << 6 | to];
+    }
+
+    /**
+     * Returns the bitboard holding only {@code square}.
+     */
+    public static long bit(final int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Returns the index of the least significant set bit of {@code bits}.
+     */
+    public static int first(final long bits) {
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Returns the index of {@code square} written in algebraic notation, e.g.
+     * {@code "e4"}, or {@code -1} if it is malformed.
+     */
+    public static int parse(final CharSequence square) {
+        if (square == null || square.length() != 2) {
+            return -1;
+        }
+        final int x = square.charAt(0) - 'a';
+        final int y = '8' - square.charAt(1);
+        return x >= 0 && x < 8 && y >= 0 && y < 8 ? y << 3 | x : -1;
+    }
+
+    /**
+     * Returns {@code square} written in algebraic notation, e.g. {@code "e4"}.
+     */
+    public static String toString(final int square) {
+        return "" + (char) ('a' + (square & 7)) + (char) ('8' - (square >>> 3));
+    }
+
+    private static long steps(final int x, final int y, final int[][] deltas) {
+        long result = 0L;
+        for (final int[] delta : deltas) {
+            final int tx = x + delta[0];
+            final int ty = y + delta[1];
+            if (tx >= 0 && tx < 8 && ty >= 0 && ty < 8) {
+                result |= 1L << (ty << 3 | tx);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the squares whose occupancy matters for a slider on {@code (x, y)},
+     * i.e. its rays without their last square.
+     */
+    private static long relevant(final int x, final int y, final int[][] directions) {
+        long result = 0L;
+        for (final int[] direction : directions) {
+            int tx = x + direction[0];
+            int ty = y + direction[1];
+            while (tx + direction[0] >= 0 && tx + direction[0] < 8
+                    && ty + direction[1] >= 0 && ty + direction[1] < 8) {
+                result |= 1L << (ty << 3 | tx);
+                tx += direction[0];
+                ty += direction[1];
+            }
+        }
+        return result;
+    }
+
+    private static long slide(final int square, final long occupancy, final int[][] directions) {
+        long result = 0L;
+        for (final int[] direction : directions) {
+            int tx = (square & 7) + direction[0];
+            int ty = (square >>> 3) + direction[1];
+            while (tx >= 0 && tx < 8 && ty >= 0 && ty < 8) {
+                final long bit = 1L << (ty << 3 | tx);
+                result |= bit;
+                if ((occupancy & bit) != 0L) {
+                    break;
+                }
+                tx += direction[0];
+                ty += direction[1];
+            }
+        }
+        return result;
+    }
+
+    private static int offsets(final long[] masks, final int[] shifts, final int[] offsets) {
+        int total = 0;
+        for (int square = 0; square < 64; square++) {
+            final int bits = Long.bitCount(masks[square]);
+            shifts[square] = 64 - bits;
+            offsets[square] = total;
+            total += 1 << bits;
+        }
+        return total;
+    }
+
+    /**
+     * Fills the slots of {@code table} belonging to {@code square} using {@code
+     * magic}, which must map every subset of its relevant occupancy onto its own
+     * slot or one with identical attacks.
+     */
+    private static void fill(final int square,
+                             final long magic,
+                             final long[] masks,
+                             final int[] shifts,
+                             final int[] offsets,
+                             final long[] table,
+                             final int[][] directions) {
+        final long mask = masks[square];
+        // enumerate every subset of mask by the carry-rippler trick
+        long subset = 0L;
+        do {
+            final int index = (int) ((subset * magic) >>> shifts[square]);
+            final long attacks = slide(square, subset, directions);
+            assert table[offsets[square] + index] == 0L || table[offsets[square] + index] == attacks
+                    : "Colliding magic for square " + square;
+            table[offsets[square] + index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0L);
+    }
+
+    /**
+     * Searches a multiplier mapping every subset of the relevant occupancy of
+     * {@code square} onto its own slot or one with identical attacks.
+     */
+    private static long search(final int square,
+                               final long[] masks,
+                               final int[] shifts,
+                               final int[][] directions,
+                               final long[] seed) {
+        final long mask = masks[square];
+        final int count = 1 << Long.bitCount(mask);
+        final long[] occupancies = new long[count];
+        final long[] attacks = new long[count];
+        // enumerate every subset of mask by the carry-rippler trick
+        long subset = 0L;
+        for (int i = 0; i < count; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slide(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+        final int[] epoch = new int[count];
+        final long[] used = new long[count];
+        for (int attempt = 1; ; attempt++) {
+            final long magic = random(seed) & random(seed) & random(seed);
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean valid = true;
+            for (int i = 0; i < count && valid; i++) {
+                final int index = (int) ((occupancies[i] * magic) >>> shifts[square]);
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    used[index] = attacks[i];
+                } else if (used[index] != attacks[i]) {
+                    valid = false;
+                }
+            }
+            if (valid) {
+                return magic;
+            }
+        }
+    }
+
+    private static long random(final long[] seed) {
+        long x = seed[0];
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        seed[0] = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Searches the multipliers deterministically and prints them in the form of
+     * {@link #ROOK_MAGICS} and {@link #BISHOP_MAGICS}; only needed to change the
+     * constants.
+     */
+    public static void main(final String[] args) {
+        final long[] seed = { 0x2545F4914F6CDD1DL };
+        final long[] rooks = new long[64];
+        final long[] bishops = new long[64];
+        // the searches share a single random sequence, interleaved per square
+        for (int square = 0; square < 64; square++) {
+            rooks[square] = search(square, ROOK_MASKS, ROOK_SHIFTS, ROOK_DIRECTIONS, seed);
+            bishops[square] = search(square, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_DIRECTIONS, seed);
+        }
+        print("ROOK_MAGICS", rooks);
+        print("BISHOP_MAGICS", bishops);
+    }
+
+    private static void print(final String name, final long[] magics) {
+        final StringBuilder out = new StringBuilder("    private static final long[] ").append(name).append(" = {");
+        for (int square = 0; square < magics.length; square++) {
+            out.append(square % 4 == 0 ? "\n            " : " ")
+                    .append(String.format("0x%016XL", magics[square]))
+                    .append(square + 1 < magics.length ? "," : "");
+        }
+        System.out.println(out.append("\n    };"));
+    }
+
+    private Bitboards() {
+    }
+}
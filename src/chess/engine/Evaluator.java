@@ -0,0 +1,65 @@
+package chess.engine;
+
+import chess.internal.Team;
+
+/**
+ * Scores positions statically for {@link Search}.
+ * <p>
+ * Implementations are called once per node and should therefore rely on state
+ * maintained incrementally rather than scanning the board: an {@link
+ * Accumulator} returned by {@link #accumulator()} is told about every piece put
+ * and removed by a position it is {@link Position#attach(Evaluator) attached}
+ * to; see {@link PieceSquareEvaluator}. Implementations must be safe to call
+ * from several threads at once.
+ */
+@FunctionalInterface
+public interface Evaluator {
+
+    /**
+     * The state an evaluator keeps per position and updates as pieces move.
+     * Instances are confined to the thread owning their position.
+     */
+    interface Accumulator {
+
+        /**
+         * Called whenever {@code piece} is put onto {@code square}.
+         */
+        void put(int piece, int square);
+
+        /**
+         * Called whenever {@code piece} is removed from {@code square}.
+         */
+        void remove(int piece, int square);
+
+        /**
+         * Returns an independent copy for a {@link Position#copy() copied}
+         * position.
+         */
+        Accumulator copy();
+    }
+
+    /**
+     * Returns the score of {@code position} in centipawns from the point of view
+     * of the side to move.
+     */
+    int evaluate(Position position);
+
+    /**
+     * Returns a new, empty accumulator for a position to update, or {@code null}
+     * if nothing is maintained incrementally, which is the default.
+     */
+    default Accumulator accumulator() {
+        return null;
+    }
+
+    /**
+     * Returns the score of the position described by {@code source} in
+     * centipawns from the point of view of {@code team}, which is taken to be
+     * the side to move.
+     *
+     * @see Position#of(String[][], Team)
+     */
+    default int evaluate(final String[][] source, final Team team) {
+        return this.evaluate(Position.of(source, team));
+    }
+}
@@ -0,0 +1,668 @@
+package chess.engine;
+
+import static chess.engine.Position.FIGURES;
+import static chess.engine.Position.PAWN;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams the positions of games stored in Portable Game Notation or of
+ * positions stored one per line in Forsyth-Edwards Notation.
+ * <p>
+ * Files are memory-mapped in chunks that end at game boundaries, and the chunks
+ * are parsed in parallel. Moves are decoded from the mapped bytes and matched
+ * against the legal moves of the current position, so that parsing allocates
+ * per game rather than per token. Every position is handed to a {@link Handler},
+ * from which it may be fed into a {@code Board} or {@code Schach.zeige} via
+ * {@link Position#toBitboards(long)}.
+ */
+public final class GameLoader {
+
+    /**
+     * The layout of a file.
+     */
+    public enum Format {
+
+        /**
+         * Portable Game Notation; every position of every game is reported,
+         * starting with the initial one. Comments, variations and annotations are
+         * skipped.
+         */
+        PGN,
+
+        /**
+         * One position in Forsyth-Edwards Notation per line; empty lines and lines
+         * starting with {@code #} are skipped.
+         */
+        FEN;
+
+        /**
+         * Guesses the format from the extension of {@code path}, defaulting to
+         * {@link #PGN}.
+         */
+        public static Format of(final Path path) {
+            final String name = String.valueOf(path.getFileName()).toLowerCase(Locale.ROOT);
+            return name.endsWith(".fen") || name.endsWith(".epd") ? FEN : PGN;
+        }
+    }
+
+    /**
+     * Receives the positions of a file.
+     * <p>
+     * Chunks are parsed concurrently, so implementations must be thread-safe;
+     * the positions of one game are always reported in order by one thread.
+     */
+    @FunctionalInterface
+    public interface Handler {
+
+        /**
+         * Called for every position.
+         *
+         * @param game the offset of the game or line within the file, which
+         *        identifies it.
+         * @param position the position, which is reused for the next one and must
+         *        therefore be {@link Position#copy() copied} to be kept.
+         */
+        void accept(long game, Position position);
+
+        /**
+         * Called whenever a game or line is skipped since it cannot be parsed.
+         *
+         * @param offset the offset of the offending token or line within the file.
+         * @param reason a description of the problem.
+         */
+        default void reject(final long offset, final String reason) {
+        }
+    }
+
+    /**
+     * The size chunks are cut to before being extended to the next game boundary.
+     */
+    static final int CHUNK = 32 << 20;
+
+    private static final byte[] GAME_START = "\n[Event ".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * A tag following a blank line, which starts a game when its tags omit
+     * {@code Event}; both line terminators are accepted.
+     */
+    private static final byte[][] TAG_START = {
+            "\n\n[".getBytes(StandardCharsets.US_ASCII),
+            "\n\r\n[".getBytes(StandardCharsets.US_ASCII)
+    };
+
+    private static final byte[] LINE_START = { '\n' };
+
+    private static final byte[] FEN_TAG = "FEN".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[][] RESULTS = {
+            "1-0".getBytes(StandardCharsets.US_ASCII),
+            "0-1".getBytes(StandardCharsets.US_ASCII),
+            "1/2-1/2".getBytes(StandardCharsets.US_ASCII)
+    };
+
+    /**
+     * Reports every position stored in {@code path}, using every available
+     * processor.
+     *
+     * @see #load(Path, Format, Handler, int)
+     */
+    public static long load(final Path path, final Handler handler) throws IOException {
+        return load(path, Format.of(path), handler, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reports every position stored in {@code path}.
+     *
+     * @param path the file to read.
+     * @param format the layout of the file.
+     * @param handler receives the positions.
+     * @param threads the number of threads parsing; {@code 1} parses on the
+     *        calling thread.
+     * @return the number of positions reported.
+     * @throws IOException thrown when {@code path} cannot be read or a game or
+     *         line exceeds {@link Integer#MAX_VALUE} bytes.
+     * @throws IllegalArgumentException thrown when {@code threads < 1}.
+     */
+    public static long load(final Path path,
+                            final Format format,
+                            final Handler handler,
+                            final int threads) throws IOException {
+        assert path != null : "path == null";
+        assert format != null : "format == null";
+        assert handler != null : "handler == null";
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long[] boundaries = format == Format.PGN
+                    ? split(channel, GAME_START, TAG_START)
+                    : split(channel, LINE_START);
+            if (threads == 1 || boundaries.length <= 2) {
+                final Parser parser = new Parser(format, handler);
+                long result = 0L;
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    result += parser.parse(channel, boundaries[i], boundaries[i + 1]);
+                }
+                return result;
+            }
+            final ExecutorService executor = Executors.newFixedThreadPool(threads, (final Runnable task) -> {
+                final Thread thread = new Thread(task, "GameLoader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                final List<Future<Long>> futures = new ArrayList<>(boundaries.length - 1);
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    final long start = boundaries[i];
+                    final long end = boundaries[i + 1];
+                    futures.add(executor.submit(() -> new Parser(format, handler).parse(channel, start, end)));
+                }
+                long result = 0L;
+                for (final Future<Long> future : futures) {
+                    result += future.get();
+                }
+                return result;
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            } catch (final ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Returns the offsets of the chunks of {@code channel}, including zero and
+     * its size; every offset but the last follows an occurrence of the first
+     * byte of a pattern, i.e. starts a line.
+     * <p>
+     * Chunks end at the first {@code separator} after {@link #CHUNK} bytes; if
+     * there is none within another {@link #CHUNK} bytes, they end at the first
+     * of the {@code fallbacks} instead.
+     *
+     * @throws IOException thrown when a chunk exceeds {@link Integer#MAX_VALUE}
+     *         bytes, which is the most that can be mapped at once.
+     */
+    private static long[] split(final FileChannel channel,
+                                final byte[] separator,
+                                final byte[]... fallbacks) throws IOException {
+        final long size = channel.size();
+        final List<Long> offsets = new ArrayList<>();
+        offsets.add(0L);
+        final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long start = CHUNK;
+        while (start < size) {
+            long boundary = find(channel, buffer, start, fallbacks.length > 0 ? start + CHUNK : size, separator);
+            if (boundary < 0L && fallbacks.length > 0) {
+                boundary = find(channel, buffer, start, size, fallbacks);
+            }
+            if (boundary < 0L) {
+                break;
+            }
+            offsets.add(boundary);
+            start = boundary + CHUNK;
+        }
+        offsets.add(size);
+        final long[] result = new long[offsets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = offsets.get(i);
+            if (i > 0 && result[i] - result[i - 1] > Integer.MAX_VALUE) {
+                throw new IOException("No game or line boundary within " + Integer.MAX_VALUE
+                        + " bytes after offset " + result[i - 1]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offset after the first byte of the first occurrence of any of
+     * {@code patterns} starting at or after {@code from} and before {@code
+     * limit}, or {@code -1} if there is none.
+     */
+    private static long find(final FileChannel channel,
+                             final ByteBuffer buffer,
+                             final long from,
+                             final long limit,
+                             final byte[]... patterns) throws IOException {
+        int longest = 0;
+        for (final byte[] pattern : patterns) {
+            longest = Math.max(longest, pattern.length);
+        }
+        long offset = from;
+        while (offset < limit) {
+            buffer.clear();
+            final int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return -1L;
+            }
+            for (int i = 0; i < read && offset + i < limit; i++) {
+                for (final byte[] pattern : patterns) {
+                    int j = 0;
+                    while (j < pattern.length && i + j < read && buffer.get(i + j) == pattern[j]) {
+                        j++;
+                    }
+                    if (j == pattern.length) {
+                        return offset + i + 1;
+                    }
+                }
+            }
+            if (read < longest) {
+                // the end of the file
+                return -1L;
+            }
+            // a pattern may straddle two reads
+            offset += read - longest + 1;
+        }
+        return -1L;
+    }
+
+    /**
+     * Parses chunks on one thread, reusing its buffers from one game to the next.
+     */
+    private static final class Parser {
+
+        private final Format format;
+
+        private final Handler handler;
+
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+        private byte[] line = new byte[128];
+
+        private MappedByteBuffer buffer;
+
+        private long base;
+
+        private int end;
+
+        private Position position;
+
+        private long game;
+
+        private String fen;
+
+        /**
+         * Whether the moves of the current game are skipped due to an error.
+         */
+        private boolean skipping;
+
+        private long count;
+
+        Parser(final Format format, final Handler handler) {
+            this.format = format;
+            this.handler = handler;
+        }
+
+        long parse(final FileChannel channel, final long start, final long end) {
+            assert end - start <= Integer.MAX_VALUE : "end - start > Integer.MAX_VALUE";
+            try {
+                this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            this.base = start;
+            this.end = (int) (end - start);
+            this.count = 0L;
+            if (this.format == Format.PGN) {
+                this.pgn();
+            } else {
+                this.fen();
+            }
+            this.buffer = null;
+            return this.count;
+        }
+
+        private void fen() {
+            final MappedByteBuffer buffer = this.buffer;
+            int pos = 0;
+            while (pos < this.end) {
+                int eol = pos;
+                while (eol < this.end && buffer.get(eol) != '\n') {
+                    eol++;
+                }
+                int last = eol;
+                while (last > pos && buffer.get(last - 1) <= ' ') {
+                    last--;
+                }
+                if (last > pos && buffer.get(pos) != '#') {
+                    final int length = last - pos;
+                    if (this.line.length < length) {
+                        this.line = new byte[Math.max(length, this.line.length << 1)];
+                    }
+                    for (int i = 0; i < length; i++) {
+                        this.line[i] = buffer.get(pos + i);
+                    }
+                    final String str = new String(this.line, 0, length, StandardCharsets.US_ASCII);
+                    try {
+                        this.position = Position.fromFen(str);
+                        this.report(this.base + pos);
+                    } catch (final IllegalArgumentException ex) {
+                        this.handler.reject(this.base + pos, ex.getMessage());
+                    }
+                }
+                pos = eol + 1;
+            }
+        }
+
+        private void pgn() {
+            final MappedByteBuffer buffer = this.buffer;
+            final int end = this.end;
+            this.begin(0);
+            boolean moves = true;
+            int pos = 0;
+            while (pos < end) {
+                final byte chr = buffer.get(pos);
+                if (chr <= ' ') {
+                    pos++;
+                } else if (chr == '[') {
+                    if (moves) {
+                        // the tags of a new game
+                        moves = false;
+                        this.begin(pos);
+                    }
+                    pos = this.tag(pos);
+                } else if (chr == '{') {
+                    pos = this.skip(pos, (byte) '}');
+                } else if (chr == ';' || chr == '%') {
+                    pos = this.skip(pos, (byte) '\n');
+                } else if (chr == '(') {
+                    pos = this.variation(pos);
+                } else {
+                    int token = pos;
+                    while (token < end && !isDelimiter(buffer.get(token))) {
+                        token++;
+                    }
+                    if (token > pos) {
+                        moves = true;
+                        this.token(pos, token);
+                    }
+                    // skips stray closing parentheses
+                    pos = Math.max(token, pos + 1);
+                }
+            }
+        }
+
+        /**
+         * Starts a new game at {@code pos}.
+         */
+        private void begin(final int pos) {
+            this.position = null;
+            this.fen = null;
+            this.skipping = false;
+            this.game = this.base + pos;
+        }
+
+        /**
+         * Handles the movetext token between {@code start} and {@code end}.
+         */
+        private void token(final int start, final int end) {
+            final MappedByteBuffer buffer = this.buffer;
+            final byte first = buffer.get(start);
+            if (first == '*' || isResult(buffer, start, end)) {
+                if (!this.skipping) {
+                    // a game without moves still has its initial position
+                    this.start();
+                }
+                // the next game may omit its tags
+                this.begin(end);
+                return;
+            }
+            if (first == '$' || this.skipping) {
+                return;
+            }
+            int san = start;
+            if (first >= '0' && first <= '9' && !isCastling(buffer, start, end)) {
+                // a move number, possibly followed by a move without a space
+                while (san < end && (buffer.get(san) >= '0' && buffer.get(san) <= '9' || buffer.get(san) == '.')) {
+                    san++;
+                }
+                if (san == end) {
+                    return;
+                }
+            }
+            if (!this.start()) {
+                return;
+            }
+            final int move = this.san(san, end);
+            if (move == Move.NONE) {
+                this.skipping = true;
+                this.handler.reject(this.base + san, "Illegal or malformed move \""
+                        + ascii(buffer, san, end) + "\" in " + this.position.toFen());
+                return;
+            }
+            this.position.make(move);
+            this.report(this.game);
+        }
+
+        /**
+         * Sets up and reports the initial position of the current game unless
+         * done before; returns {@code false} if it is malformed.
+         */
+        private boolean start() {
+            if (this.position == null) {
+                try {
+                    this.position = this.fen != null ? Position.fromFen(this.fen) : Position.standard();
+                } catch (final IllegalArgumentException ex) {
+                    this.skipping = true;
+                    this.handler.reject(this.game, ex.getMessage());
+                    return false;
+                }
+                this.report(this.game);
+            }
+            return true;
+        }
+
+        /**
+         * Reads the tag at {@code pos}, remembering a set-up position; returns the
+         * index after it.
+         */
+        private int tag(final int pos) {
+            final MappedByteBuffer buffer = this.buffer;
+            int name = pos + 1;
+            int i = name;
+            while (i < this.end && buffer.get(i) > ' ' && buffer.get(i) != '"' && buffer.get(i) != ']') {
+                i++;
+            }
+            final boolean fen = matches(buffer, name, i, FEN_TAG);
+            while (i < this.end && buffer.get(i) != '"' && buffer.get(i) != ']' && buffer.get(i) != '\n') {
+                i++;
+            }
+            if (i < this.end && buffer.get(i) == '"') {
+                final int value = ++i;
+                while (i < this.end && buffer.get(i) != '"') {
+                    i += buffer.get(i) == '\\' ? 2 : 1;
+                }
+                if (fen && i <= this.end) {
+                    this.fen = ascii(buffer, value, i);
+                }
+                i++;
+            }
+            while (i < this.end && buffer.get(i) != ']' && buffer.get(i) != '\n') {
+                i++;
+            }
+            return i + 1;
+        }
+
+        /**
+         * Returns the index after the first {@code terminator} following {@code
+         * pos}.
+         */
+        private int skip(final int pos, final byte terminator) {
+            int i = pos + 1;
+            while (i < this.end && this.buffer.get(i) != terminator) {
+                i++;
+            }
+            return i + 1;
+        }
+
+        /**
+         * Returns the index after the variation starting at {@code pos}, skipping
+         * nested variations and comments.
+         */
+        private int variation(final int pos) {
+            int depth = 0;
+            int i = pos;
+            while (i < this.end) {
+                final byte chr = this.buffer.get(i);
+                if (chr == '{') {
+                    i = this.skip(i, (byte) '}');
+                    continue;
+                } else if (chr == '(') {
+                    depth++;
+                } else if (chr == ')' && --depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            }
+            return i;
+        }
+
+        /**
+         * Decodes the move in Standard Algebraic Notation between {@code start} and
+         * {@code end}; returns {@link Move#NONE} if it is malformed or illegal.
+         */
+        private int san(final int start, int end) {
+            final MappedByteBuffer buffer = this.buffer;
+            final Position position = this.position;
+            while (end > start && "+#!?".indexOf(buffer.get(end - 1)) >= 0) {
+                end--;
+            }
+            final int count = MoveGenerator.legal(position, this.moves, 0);
+            if (isCastling(buffer, start, end)) {
+                int castles = 0;
+                for (int i = start; i < end; i++) {
+                    castles += buffer.get(i) == '-' ? 1 : 0;
+                }
+                final int flag = castles == 1 ? Move.KING_CASTLE : Move.QUEEN_CASTLE;
+                for (int i = 0; i < count; i++) {
+                    if (Move.flag(this.moves[i]) == flag) {
+                        return this.moves[i];
+                    }
+                }
+                return Move.NONE;
+            }
+            int i = start;
+            int figure = PAWN;
+            final int piece = "NBRQK".indexOf(buffer.get(i));
+            if (piece >= 0) {
+                figure = piece + 1;
+                i++;
+            }
+            int promotion = -1;
+            if (end - i >= 3 && figure == PAWN) {
+                final int promoted = "NBRQ".indexOf(Character.toUpperCase(buffer.get(end - 1)));
+                final byte before = buffer.get(end - 2);
+                if (promoted >= 0 && (before == '=' || before >= '1' && before <= '8')) {
+                    promotion = promoted + 1;
+                    end -= before == '=' ? 2 : 1;
+                }
+            }
+            if (end - i < 2) {
+                return Move.NONE;
+            }
+            final int toFile = buffer.get(end - 2) - 'a';
+            final int toRank = buffer.get(end - 1) - '1';
+            if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7) {
+                return Move.NONE;
+            }
+            int fromFile = -1;
+            int fromRank = -1;
+            for (; i < end - 2; i++) {
+                final byte chr = buffer.get(i);
+                if (chr >= 'a' && chr <= 'h') {
+                    fromFile = chr - 'a';
+                } else if (chr >= '1' && chr <= '8') {
+                    fromRank = chr - '1';
+                } else if (chr != 'x' && chr != ':' && chr != '-') {
+                    return Move.NONE;
+                }
+            }
+            final int to = (7 - toRank) << 3 | toFile;
+            for (int j = 0; j < count; j++) {
+                final int move = this.moves[j];
+                final int from = Move.from(move);
+                if (Move.to(move) == to
+                        && position.pieceAt(from) % FIGURES == figure
+                        && (fromFile < 0 || (from & 7) == fromFile)
+                        && (fromRank < 0 || 7 - (from >>> 3) == fromRank)
+                        && (Move.isPromotion(move)
+                                ? Move.promotion(move) == (promotion < 0 ? Position.QUEEN : promotion)
+                                : promotion < 0)) {
+                    return move;
+                }
+            }
+            return Move.NONE;
+        }
+
+        private void report(final long game) {
+            this.count++;
+            this.handler.accept(game, this.position);
+        }
+
+        private static boolean isDelimiter(final byte chr) {
+            return chr <= ' ' || chr == '{' || chr == '(' || chr == ')' || chr == '[' || chr == ';';
+        }
+
+        private static boolean isCastling(final ByteBuffer buffer, final int start, final int end) {
+            final byte first = buffer.get(start);
+            return end - start >= 3 && (first == 'O' || first == '0') && buffer.get(start + 1) == '-';
+        }
+
+        private static boolean isResult(final ByteBuffer buffer, final int start, final int end) {
+            for (final byte[] result : RESULTS) {
+                if (matches(buffer, start, end, result)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean matches(final ByteBuffer buffer, final int start, final int end, final byte[] bytes) {
+            if (end - start != bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (buffer.get(start + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String ascii(final ByteBuffer buffer, final int start, final int end) {
+            final StringBuilder out = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                out.append((char) (buffer.get(i) & 0xFF));
+            }
+            return out.toString();
+        }
+    }
+
+    private GameLoader() {
+    }
+}
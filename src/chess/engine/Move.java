@@ -0,0 +1,108 @@
+package chess.engine;
+
+import chess.internal.Square;
+
+/**
+ * Helpers for moves encoded into a single {@code int}.
+ * <p>
+ * Bits 0 to 5 hold the origin, bits 6 to 11 the destination and bits 12 to 15
+ * one of the flags declared below. Squares are numbered as in {@link Bitboards}.
+ * The value {@link #NONE} denotes the absence of a move.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+
+    public static final int DOUBLE_PUSH = 1;
+
+    public static final int KING_CASTLE = 2;
+
+    public static final int QUEEN_CASTLE = 3;
+
+    public static final int CAPTURE = 4;
+
+    public static final int EN_PASSANT = 5;
+
+    /**
+     * Set on every promotion; the lowest two bits select the figure, see {@link
+     * #promotion(int)}.
+     */
+    public static final int PROMOTION = 8;
+
+    public static int of(final int from, final int to, final int flag) {
+        return from | to << 6 | flag << 12;
+    }
+
+    public static int from(final int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(final int move) {
+        return move >>> 6 & 0x3F;
+    }
+
+    public static int flag(final int move) {
+        return move >>> 12 & 0xF;
+    }
+
+    public static boolean isCapture(final int move) {
+        return (flag(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return (flag(move) & PROMOTION) != 0;
+    }
+
+    /**
+     * Returns the index within {@link Square#FIGURES} of the figure a pawn is
+     * promoted to, i.e. knight, bishop, rook or queen.
+     */
+    public static int promotion(final int move) {
+        return (flag(move) & 3) + 1;
+    }
+
+    /**
+     * Returns {@code move} in coordinate notation, e.g. {@code "e2e4"} or {@code
+     * "e7e8q"}.
+     */
+    public static String toString(final int move) {
+        final String result = Bitboards.toString(from(move)) + Bitboards.toString(to(move));
+        return isPromotion(move) ? result + "nbrq".charAt(promotion(move) - 1) : result;
+    }
+
+    /**
+     * Returns the legal move of {@code position} written as {@code str} in
+     * coordinate notation or {@link #NONE} if there is none.
+     * <p>
+     * Promotions without a figure are taken to promote to a queen.
+     *
+     * @param position the position to find the move in.
+     * @param str the move in coordinate notation, e.g. {@code "e2e4"}.
+     */
+    public static int parse(final Position position, final String str) {
+        if (str == null || str.length() < 4 || str.length() > 5) {
+            return NONE;
+        }
+        final int from = Bitboards.parse(str.substring(0, 2));
+        final int to = Bitboards.parse(str.substring(2, 4));
+        final int promotion = str.length() == 5 ? "nbrq".indexOf(Character.toLowerCase(str.charAt(4))) + 1 : 4;
+        if (from < 0 || to < 0 || promotion <= 0) {
+            return NONE;
+        }
+        final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        final int count = MoveGenerator.legal(position, moves, 0);
+        for (int i = 0; i < count; i++) {
+            final int move = moves[i];
+            if (from(move) == from && to(move) == to
+                    && (!isPromotion(move) || promotion(move) == promotion)) {
+                return move;
+            }
+        }
+        return NONE;
+    }
+
+    private Move() {
+    }
+}
@@ -0,0 +1,301 @@
+package chess.engine;
+
+import static chess.engine.Position.BISHOP;
+import static chess.engine.Position.FIGURES;
+import static chess.engine.Position.KING;
+import static chess.engine.Position.KNIGHT;
+import static chess.engine.Position.PAWN;
+import static chess.engine.Position.QUEEN;
+import static chess.engine.Position.ROOK;
+import static chess.engine.Position.WHITE;
+
+/**
+ * Generates pseudo-legal and legal moves into caller-supplied arrays.
+ * <p>
+ * Neither method allocates anything, so a search may reuse one array per ply.
+ * Castling moves are only generated if the king neither stands in, passes
+ * through nor lands on an attacked square.
+ */
+public final class MoveGenerator {
+
+    /**
+     * An upper bound of the number of moves in any position.
+     */
+    public static final int MAX_MOVES = 256;
+
+    private static final long WHITE_KING_SIDE_EMPTY = (1L << 61) | (1L << 62);
+
+    private static final long WHITE_QUEEN_SIDE_EMPTY = (1L << 57) | (1L << 58) | (1L << 59);
+
+    private static final long BLACK_KING_SIDE_EMPTY = (1L << 5) | (1L << 6);
+
+    private static final long BLACK_QUEEN_SIDE_EMPTY = (1L << 1) | (1L << 2) | (1L << 3);
+
+    /**
+     * Writes every pseudo-legal move of {@code position} into {@code moves}
+     * starting at {@code offset}.
+     *
+     * @return the index after the last move written.
+     */
+    public static int pseudoLegal(final Position position, final int[] moves, final int offset) {
+        return generate(position, moves, offset, -1L);
+    }
+
+    /**
+     * Writes every pseudo-legal capture and queen promotion of {@code position}
+     * into {@code moves} starting at {@code offset}.
+     *
+     * @return the index after the last move written.
+     */
+    public static int captures(final Position position, final int[] moves, final int offset) {
+        final int end = generate(position, moves, offset, position.sides[position.side ^ 1]);
+        int count = offset;
+        for (int i = offset; i < end; i++) {
+            final int move = moves[i];
+            if (!Move.isPromotion(move) || Move.promotion(move) == QUEEN) {
+                moves[count++] = move;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes every legal move of {@code position} into {@code moves} starting at
+     * {@code offset}.
+     *
+     * @return the index after the last move written.
+     */
+    public static int legal(final Position position, final int[] moves, final int offset) {
+        final int end = pseudoLegal(position, moves, offset);
+        final int us = position.side;
+        final int them = us ^ 1;
+        final int king = position.king(us);
+        final long checkers = position.attackers(king, them, position.occupancy);
+        final long pinned = pinned(position, king, us);
+        final long evasions = checkers == 0L
+                ? -1L
+                : Long.bitCount(checkers) > 1
+                        ? 0L
+                        : checkers | Bitboards.between(king, Bitboards.first(checkers));
+        int count = offset;
+        for (int i = offset; i < end; i++) {
+            final int move = moves[i];
+            if (isLegal(position, move, king, pinned, evasions)) {
+                moves[count++] = move;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the pseudo-legal {@code move} does not leave the king
+     * of the side to move in check.
+     */
+    public static boolean isLegal(final Position position, final int move) {
+        final int us = position.side;
+        final int king = position.king(us);
+        final long checkers = position.attackers(king, us ^ 1, position.occupancy);
+        final long evasions = checkers == 0L
+                ? -1L
+                : Long.bitCount(checkers) > 1
+                        ? 0L
+                        : checkers | Bitboards.between(king, Bitboards.first(checkers));
+        return isLegal(position, move, king, pinned(position, king, us), evasions);
+    }
+
+    private static boolean isLegal(final Position position,
+                                   final int move,
+                                   final int king,
+                                   final long pinned,
+                                   final long evasions) {
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int us = position.side;
+        if (from == king) {
+            // castling has been checked when generated
+            final int flag = Move.flag(move);
+            return flag == Move.KING_CASTLE || flag == Move.QUEEN_CASTLE
+                    || position.attackers(to, us ^ 1, position.occupancy ^ (1L << from)) == 0L;
+        } else if (Move.flag(move) == Move.EN_PASSANT) {
+            // removes two pieces from a line through the king at once
+            position.make(move);
+            final boolean result = !position.isAttacked(king, us ^ 1);
+            position.unmake(move);
+            return result;
+        } else {
+            return (evasions & (1L << to)) != 0L
+                    && ((pinned & (1L << from)) == 0L || (Bitboards.line(king, from) & (1L << to)) != 0L);
+        }
+    }
+
+    /**
+     * Returns the pieces of {@code us} that may not leave the line between their
+     * king and an enemy slider.
+     */
+    private static long pinned(final Position position, final int king, final int us) {
+        final int base = (us ^ 1) * FIGURES;
+        final long queens = position.pieces[base + QUEEN];
+        long snipers = (Bitboards.rookAttacks(king, 0L) & (position.pieces[base + ROOK] | queens))
+                | (Bitboards.bishopAttacks(king, 0L) & (position.pieces[base + BISHOP] | queens));
+        long result = 0L;
+        for (; snipers != 0L; snipers &= snipers - 1L) {
+            final long blockers = Bitboards.between(king, Bitboards.first(snipers)) & position.occupancy;
+            if (blockers != 0L && (blockers & (blockers - 1L)) == 0L) {
+                result |= blockers & position.sides[us];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generates pseudo-legal moves whose destination lies within {@code targets};
+     * pawn pushes are only restricted to promotions when {@code targets} is not
+     * {@code -1}.
+     */
+    private static int generate(final Position position,
+                                final int[] moves,
+                                final int offset,
+                                final long targets) {
+        final int us = position.side;
+        final int them = us ^ 1;
+        final int base = us * FIGURES;
+        final long own = position.sides[us];
+        final long enemies = position.sides[them];
+        final long occupancy = position.occupancy;
+        final long empty = ~occupancy;
+        int count = offset;
+        // pawns
+        final long pawns = position.pieces[base + PAWN];
+        final long promotions = us == WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+        final long single;
+        final long doubles;
+        final int forward;
+        if (us == WHITE) {
+            single = (pawns >>> 8) & empty;
+            doubles = ((single & (Bitboards.RANK_8 << 40)) >>> 8) & empty;
+            forward = -8;
+        } else {
+            single = (pawns << 8) & empty;
+            doubles = ((single & (Bitboards.RANK_8 << 16)) << 8) & empty;
+            forward = 8;
+        }
+        final long pushes = targets == -1L ? single : single & promotions;
+        for (long bits = pushes; bits != 0L; bits &= bits - 1L) {
+            final int to = Bitboards.first(bits);
+            count = pawn(moves, count, to - forward, to, Move.QUIET, promotions);
+        }
+        if (targets == -1L) {
+            for (long bits = doubles; bits != 0L; bits &= bits - 1L) {
+                final int to = Bitboards.first(bits);
+                moves[count++] = Move.of(to - 2 * forward, to, Move.DOUBLE_PUSH);
+            }
+        }
+        final long west;
+        final long east;
+        final int westDelta;
+        final int eastDelta;
+        if (us == WHITE) {
+            west = ((pawns & ~Bitboards.FILE_A) >>> 9) & enemies & targets;
+            east = ((pawns & ~Bitboards.FILE_H) >>> 7) & enemies & targets;
+            westDelta = -9;
+            eastDelta = -7;
+        } else {
+            west = ((pawns & ~Bitboards.FILE_A) << 7) & enemies & targets;
+            east = ((pawns & ~Bitboards.FILE_H) << 9) & enemies & targets;
+            westDelta = 7;
+            eastDelta = 9;
+        }
+        for (long bits = west; bits != 0L; bits &= bits - 1L) {
+            final int to = Bitboards.first(bits);
+            count = pawn(moves, count, to - westDelta, to, Move.CAPTURE, promotions);
+        }
+        for (long bits = east; bits != 0L; bits &= bits - 1L) {
+            final int to = Bitboards.first(bits);
+            count = pawn(moves, count, to - eastDelta, to, Move.CAPTURE, promotions);
+        }
+        if (position.enPassant >= 0) {
+            final int to = position.enPassant;
+            for (long bits = Bitboards.PAWN_ATTACKS[them][to] & pawns; bits != 0L; bits &= bits - 1L) {
+                moves[count++] = Move.of(Bitboards.first(bits), to, Move.EN_PASSANT);
+            }
+        }
+        // pieces
+        final long destinations = ~own & targets;
+        for (long bits = position.pieces[base + KNIGHT]; bits != 0L; bits &= bits - 1L) {
+            final int from = Bitboards.first(bits);
+            count = piece(moves, count, from, Bitboards.KNIGHT_ATTACKS[from] & destinations, enemies);
+        }
+        final long queens = position.pieces[base + QUEEN];
+        for (long bits = position.pieces[base + BISHOP] | queens; bits != 0L; bits &= bits - 1L) {
+            final int from = Bitboards.first(bits);
+            count = piece(moves, count, from, Bitboards.bishopAttacks(from, occupancy) & destinations, enemies);
+        }
+        for (long bits = position.pieces[base + ROOK] | queens; bits != 0L; bits &= bits - 1L) {
+            final int from = Bitboards.first(bits);
+            count = piece(moves, count, from, Bitboards.rookAttacks(from, occupancy) & destinations, enemies);
+        }
+        final int king = position.king(us);
+        count = piece(moves, count, king, Bitboards.KING_ATTACKS[king] & destinations, enemies);
+        // castling
+        if (targets == -1L && position.castling != 0 && !position.isAttacked(king, them)) {
+            if (us == WHITE) {
+                if ((position.castling & Position.WHITE_KING_SIDE) != 0
+                        && (occupancy & WHITE_KING_SIDE_EMPTY) == 0L
+                        && !position.isAttacked(61, them) && !position.isAttacked(62, them)) {
+                    moves[count++] = Move.of(60, 62, Move.KING_CASTLE);
+                }
+                if ((position.castling & Position.WHITE_QUEEN_SIDE) != 0
+                        && (occupancy & WHITE_QUEEN_SIDE_EMPTY) == 0L
+                        && !position.isAttacked(59, them) && !position.isAttacked(58, them)) {
+                    moves[count++] = Move.of(60, 58, Move.QUEEN_CASTLE);
+                }
+            } else {
+                if ((position.castling & Position.BLACK_KING_SIDE) != 0
+                        && (occupancy & BLACK_KING_SIDE_EMPTY) == 0L
+                        && !position.isAttacked(5, them) && !position.isAttacked(6, them)) {
+                    moves[count++] = Move.of(4, 6, Move.KING_CASTLE);
+                }
+                if ((position.castling & Position.BLACK_QUEEN_SIDE) != 0
+                        && (occupancy & BLACK_QUEEN_SIDE_EMPTY) == 0L
+                        && !position.isAttacked(3, them) && !position.isAttacked(2, them)) {
+                    moves[count++] = Move.of(4, 2, Move.QUEEN_CASTLE);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int pawn(final int[] moves,
+                            final int offset,
+                            final int from,
+                            final int to,
+                            final int flag,
+                            final long promotions) {
+        int count = offset;
+        if ((promotions & (1L << to)) != 0L) {
+            // queen first, as it is by far the most promising
+            for (int figure = QUEEN; figure >= KNIGHT; figure--) {
+                moves[count++] = Move.of(from, to, flag | Move.PROMOTION | (figure - 1));
+            }
+        } else {
+            moves[count++] = Move.of(from, to, flag);
+        }
+        return count;
+    }
+
+    private static int piece(final int[] moves,
+                             final int offset,
+                             final int from,
+                             final long destinations,
+                             final long enemies) {
+        int count = offset;
+        for (long bits = destinations; bits != 0L; bits &= bits - 1L) {
+            final int to = Bitboards.first(bits);
+            moves[count++] = Move.of(from, to, (enemies & (1L << to)) != 0L ? Move.CAPTURE : Move.QUIET);
+        }
+        return count;
+    }
+
+    private MoveGenerator() {
+    }
+}
@@ -0,0 +1,127 @@
+package chess.engine;
+
+import java.util.Locale;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth, which verifies
+ * {@link MoveGenerator} and measures its throughput.
+ * <p>
+ * Run as a program, it checks a suite of standard test positions and reports
+ * the nodes per second; the first argument optionally caps the depth, the
+ * second optionally sets the size of a {@link TranspositionTable} in MiB.
+ */
+public final class Perft {
+
+    /**
+     * The test positions paired with their known node counts by depth, starting
+     * at depth one.
+     */
+    private static final Object[][] SUITE = {
+            { Position.STANDARD,
+                    new long[] { 20L, 400L, 8_902L, 197_281L, 4_865_609L, 119_060_324L } },
+            { "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[] { 48L, 2_039L, 97_862L, 4_085_603L, 193_690_690L } },
+            { "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[] { 14L, 191L, 2_812L, 43_238L, 674_624L, 11_030_083L } },
+            { "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[] { 6L, 264L, 9_467L, 422_333L, 15_833_292L } },
+            { "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[] { 44L, 1_486L, 62_379L, 2_103_487L, 89_941_194L } },
+            { "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    new long[] { 46L, 2_079L, 89_890L, 3_894_594L, 164_075_551L } }
+    };
+
+    /**
+     * Returns the number of leaf nodes of the legal move tree of {@code position}
+     * at {@code depth}, leaving {@code position} unchanged.
+     *
+     * @param position the root of the tree.
+     * @param depth the depth of the leaves, at least zero.
+     */
+    public static long perft(final Position position, final int depth) {
+        assert depth >= 0 : "depth < 0";
+        return perft(position, depth, new int[Math.max(1, depth)][MoveGenerator.MAX_MOVES], null);
+    }
+
+    /**
+     * Returns the number of leaf nodes like {@link #perft(Position, int)}, but
+     * caches the counts of subtrees in {@code table} so that transpositions are
+     * only counted once.
+     *
+     * @param table the cache, which may be shared by concurrent calls but not
+     *        with a search.
+     */
+    public static long perft(final Position position, final int depth, final TranspositionTable table) {
+        assert depth >= 0 : "depth < 0";
+        assert table != null : "table == null";
+        return perft(position, depth, new int[Math.max(1, depth)][MoveGenerator.MAX_MOVES], table);
+    }
+
+    private static long perft(final Position position,
+                              final int depth,
+                              final int[][] buffers,
+                              final TranspositionTable table) {
+        if (depth == 0) {
+            return 1L;
+        }
+        final int[] moves = buffers[depth - 1];
+        if (depth == 1) {
+            // bulk counting: the leaves need not be visited
+            return MoveGenerator.legal(position, moves, 0);
+        }
+        final long key = position.key();
+        if (table != null) {
+            final long data = table.probe(key);
+            if (data != 0L && TranspositionTable.depth(data) == depth) {
+                return TranspositionTable.count(data);
+            }
+        }
+        final int count = MoveGenerator.legal(position, moves, 0);
+        long result = 0L;
+        for (int i = 0; i < count; i++) {
+            position.make(moves[i]);
+            result += perft(position, depth - 1, buffers, table);
+            position.unmake(moves[i]);
+        }
+        if (table != null) {
+            table.storeCount(key, depth, result);
+        }
+        return result;
+    }
+
+    public static void main(final String[] args) {
+        final int limit = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        final TranspositionTable table = args.length > 1
+                ? new TranspositionTable(Integer.parseInt(args[1]), TranspositionTable.Replacement.ALWAYS)
+                : null;
+        long nodes = 0L;
+        long time = 0L;
+        boolean passed = true;
+        for (final Object[] entry : SUITE) {
+            final String fen = (String) entry[0];
+            final long[] expected = (long[]) entry[1];
+            final int depth = Math.min(limit, expected.length);
+            final Position position = Position.fromFen(fen);
+            final long start = System.nanoTime();
+            if (table != null) {
+                table.clear();
+            }
+            final long result = table != null ? perft(position, depth, table) : perft(position, depth);
+            final long elapsed = System.nanoTime() - start;
+            final boolean ok = result == expected[depth - 1];
+            passed &= ok;
+            nodes += result;
+            time += elapsed;
+            System.out.println(String.format(Locale.ROOT, "%-4s depth %d %,15d nodes %8.3f s %,12.0f nps  %s",
+                    ok ? "OK" : "FAIL", depth, result, elapsed / 1e9, result * 1e9 / elapsed, fen));
+        }
+        System.out.println(String.format(Locale.ROOT, "total      %,15d nodes %8.3f s %,12.0f nps",
+                nodes, time / 1e9, nodes * 1e9 / time));
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private Perft() {
+    }
+}
@@ -0,0 +1,214 @@
+package chess.engine;
+
+import static chess.engine.Position.FIGURES;
+import static chess.engine.Position.WHITE;
+
+import chess.internal.Square;
+
+/**
+ * Scores material and piece placement, tapered between the middlegame and the
+ * endgame by the material left on the board.
+ * <p>
+ * The {@link Sums} of the tables below are updated as pieces are put and
+ * removed, so that {@link #evaluate(Position)} costs a few arithmetic
+ * operations regardless of the number of pieces on positions the evaluator is
+ * {@link Position#attach(Evaluator) attached} to; other positions are scanned.
+ * Values are given from the point of view of white, positive for white and
+ * negative for black.
+ */
+public final class PieceSquareEvaluator implements Evaluator {
+
+    /**
+     * The phase of the starting position; fewer pieces lead towards zero, i.e.
+     * the endgame.
+     */
+    public static final int MAX_PHASE = 24;
+
+    /**
+     * The value of each piece on each square in the middlegame, indexed by
+     * {@code piece * 64 + square}.
+     */
+    static final int[] MIDDLEGAME = new int[Square.KINDS * 64];
+
+    /**
+     * The value of each piece on each square in the endgame, indexed like {@link
+     * #MIDDLEGAME}.
+     */
+    static final int[] ENDGAME = new int[Square.KINDS * 64];
+
+    /**
+     * The contribution of each piece to the phase.
+     */
+    static final int[] PHASES = new int[Square.KINDS];
+
+    private static final int[] MIDDLEGAME_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    private static final int[] ENDGAME_VALUES = { 120, 300, 320, 520, 920, 0 };
+
+    private static final int[] FIGURE_PHASES = { 0, 1, 1, 2, 4, 0 };
+
+    /**
+     * The bonus of each figure on each square from the point of view of white,
+     * rank eight first; the last table applies to the king in the endgame.
+     */
+    private static final int[][] TABLES = {
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0
+            }, {
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50
+            }, {
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20
+            }, {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0
+            }, {
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20
+            }, {
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20
+            }, {
+                    -50, -40, -30, -20, -20, -30, -40, -50,
+                    -30, -20, -10, 0, 0, -10, -20, -30,
+                    -30, -10, 20, 30, 30, 20, -10, -30,
+                    -30, -10, 30, 40, 40, 30, -10, -30,
+                    -30, -10, 30, 40, 40, 30, -10, -30,
+                    -30, -10, 20, 30, 30, 20, -10, -30,
+                    -30, -30, 0, 0, 0, 0, -30, -30,
+                    -50, -30, -30, -30, -30, -30, -30, -50
+            }
+    };
+
+    static {
+        for (int piece = 0; piece < Square.KINDS; piece++) {
+            final int figure = piece % FIGURES;
+            final boolean white = piece < FIGURES;
+            final int[] middlegame = TABLES[figure];
+            final int[] endgame = TABLES[figure == Position.KING ? FIGURES : figure];
+            for (int square = 0; square < 64; square++) {
+                // black sees the board mirrored vertically
+                final int index = white ? square : square ^ 56;
+                final int sign = white ? 1 : -1;
+                MIDDLEGAME[piece << 6 | square] = sign * (MIDDLEGAME_VALUES[figure] + middlegame[index]);
+                ENDGAME[piece << 6 | square] = sign * (ENDGAME_VALUES[figure] + endgame[index]);
+            }
+            PHASES[piece] = FIGURE_PHASES[figure];
+        }
+    }
+
+    /**
+     * The middlegame and endgame scores and the game phase of a position.
+     */
+    static final class Sums implements Evaluator.Accumulator {
+
+        int middlegame;
+
+        int endgame;
+
+        int phase;
+
+        @Override
+        public void put(final int piece, final int square) {
+            this.middlegame += MIDDLEGAME[piece << 6 | square];
+            this.endgame += ENDGAME[piece << 6 | square];
+            this.phase += PHASES[piece];
+        }
+
+        @Override
+        public void remove(final int piece, final int square) {
+            this.middlegame -= MIDDLEGAME[piece << 6 | square];
+            this.endgame -= ENDGAME[piece << 6 | square];
+            this.phase -= PHASES[piece];
+        }
+
+        @Override
+        public Sums copy() {
+            final Sums result = new Sums();
+            result.middlegame = this.middlegame;
+            result.endgame = this.endgame;
+            result.phase = this.phase;
+            return result;
+        }
+    }
+
+    /**
+     * Computes the score of {@code position} from scratch, e.g. to verify the
+     * sums maintained incrementally.
+     */
+    public static int scan(final Position position) {
+        assert position != null : "position == null";
+        int middlegame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (int square = 0; square < 64; square++) {
+            final int piece = position.pieceAt(square);
+            if (piece >= 0) {
+                middlegame += MIDDLEGAME[piece << 6 | square];
+                endgame += ENDGAME[piece << 6 | square];
+                phase += PHASES[piece];
+            }
+        }
+        return taper(middlegame, endgame, phase, position.side());
+    }
+
+    private static int taper(final int middlegame, final int endgame, final int phase, final int side) {
+        // promotions may raise the phase beyond that of the starting position
+        final int weight = Math.min(phase, MAX_PHASE);
+        final int result = (middlegame * weight + endgame * (MAX_PHASE - weight)) / MAX_PHASE;
+        return side == WHITE ? result : -result;
+    }
+
+    @Override
+    public int evaluate(final Position position) {
+        final Evaluator.Accumulator accumulator = position.accumulator();
+        if (accumulator instanceof Sums) {
+            final Sums sums = (Sums) accumulator;
+            return taper(sums.middlegame, sums.endgame, sums.phase, position.side);
+        }
+        return scan(position);
+    }
+
+    @Override
+    public Sums accumulator() {
+        return new Sums();
+    }
+}
@@ -0,0 +1,697 @@
+package chess.engine;
+
+import chess.internal.Board;
+import chess.internal.Snapshot;
+import chess.internal.Square;
+import chess.internal.Team;
+
+import java.util.Arrays;
+
+/**
+ * A mutable chess position supporting {@link #make(int)} and {@link
+ * #unmake(int)} without allocating anything.
+ * <p>
+ * Pieces are kept as one bitboard per team and figure, indexed like {@link
+ * Square#kind}, so positions convert to and from {@link Snapshot} directly.
+ * The Zobrist key is updated as pieces move rather than recomputed, and so is
+ * the state of an {@link Evaluator} {@link #attach(Evaluator) attached}, if any.
+ * Instances are not thread-safe; use {@link #copy()} to hand a position to
+ * another thread.
+ */
+public final class Position {
+
+    public static final int WHITE = 0;
+
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+
+    public static final int KNIGHT = 1;
+
+    public static final int BISHOP = 2;
+
+    public static final int ROOK = 3;
+
+    public static final int QUEEN = 4;
+
+    public static final int KING = 5;
+
+    /**
+     * The number of figures per team, which is the distance between the pieces of
+     * both teams.
+     */
+    public static final int FIGURES = 6;
+
+    public static final int WHITE_KING_SIDE = 1;
+
+    public static final int WHITE_QUEEN_SIDE = 2;
+
+    public static final int BLACK_KING_SIDE = 4;
+
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    public static final String STANDARD = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String SYMBOLS = "PNBRQKpnbrqk";
+
+    /**
+     * The castling rights kept when a piece moves from or to the respective square.
+     */
+    private static final int[] CASTLING_MASKS = new int[64];
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    static {
+        Arrays.fill(CASTLING_MASKS, 0xF);
+        CASTLING_MASKS[60] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASKS[63] &= ~WHITE_KING_SIDE;
+        CASTLING_MASKS[56] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASKS[4] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASKS[7] &= ~BLACK_KING_SIDE;
+        CASTLING_MASKS[0] &= ~BLACK_QUEEN_SIDE;
+    }
+
+    /**
+     * Parses a position in Forsyth-Edwards Notation.
+     * <p>
+     * The move counters may be omitted.
+     *
+     * @param fen the position in question.
+     * @throws IllegalArgumentException thrown when {@code fen} is malformed or
+     *         either team does not have exactly one king.
+     */
+    public static Position fromFen(final String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("fen == null");
+        }
+        final String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"");
+        }
+        final Position result = new Position();
+        int x = 0;
+        int y = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            final char chr = fields[0].charAt(i);
+            if (chr == '/') {
+                if (x != 8) {
+                    throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"");
+                }
+                x = 0;
+                y++;
+            } else if (chr >= '1' && chr <= '8') {
+                x += chr - '0';
+            } else {
+                final int piece = SYMBOLS.indexOf(chr);
+                if (piece < 0 || x > 7 || y > 7) {
+                    throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"");
+                }
+                result.put(piece, y << 3 | x);
+                x++;
+            }
+            if (x > 8 || y > 7) {
+                throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"");
+            }
+        }
+        if (x != 8 || y != 7) {
+            throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"");
+        }
+        result.checkKings();
+        if ("w".equals(fields[1])) {
+            result.side = WHITE;
+        } else if ("b".equals(fields[1])) {
+            result.side = BLACK;
+        } else {
+            throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"");
+        }
+        for (int i = 0; i < fields[2].length(); i++) {
+            final int right = "KQkq".indexOf(fields[2].charAt(i));
+            if (right >= 0) {
+                result.castling |= 1 << right;
+            } else if (fields[2].charAt(i) != '-') {
+                throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"");
+            }
+        }
+        final int enPassant = "-".equals(fields[3]) ? -1 : Bitboards.parse(fields[3]);
+        result.enPassant = result.isCapturable(enPassant) ? enPassant : -1;
+        try {
+            result.halfmoves = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+            result.fullmoves = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed FEN \"" + fen + "\"", ex);
+        }
+        result.key = Zobrist.hash(result);
+        return result;
+    }
+
+    /**
+     * Creates the position shown by {@code snapshot} with {@code team} to move.
+     * <p>
+     * Castling rights are granted wherever king and rook stand on their initial
+     * squares; no en passant capture is possible.
+     *
+     * @param snapshot the position in question, highlighting is ignored.
+     * @param team the team to move.
+     * @throws IllegalArgumentException thrown when {@code team} is {@link
+     *         Team#NONE} or either team does not have exactly one king.
+     */
+    public static Position of(final Snapshot snapshot, final Team team) {
+        assert snapshot != null : "snapshot == null";
+        if (team == null || Team.NONE.equals(team)) {
+            throw new IllegalArgumentException("team == null || team == Team.NONE");
+        }
+        final Position result = new Position();
+        for (int piece = 0; piece < Square.KINDS; piece++) {
+            final char figure = Square.FIGURES.charAt(piece % FIGURES);
+            final Team owner = piece < FIGURES ? Team.WHITE : Team.BLACK;
+            for (long bits = snapshot.pieces(owner, figure); bits != 0L; bits &= bits - 1L) {
+                result.put(piece, Bitboards.first(bits));
+            }
+        }
+        result.checkKings();
+        result.side = team.ordinal();
+        if (result.pieceAt(60) == KING) {
+            result.castling |= result.pieceAt(63) == ROOK ? WHITE_KING_SIDE : 0;
+            result.castling |= result.pieceAt(56) == ROOK ? WHITE_QUEEN_SIDE : 0;
+        }
+        if (result.pieceAt(4) == FIGURES + KING) {
+            result.castling |= result.pieceAt(7) == FIGURES + ROOK ? BLACK_KING_SIDE : 0;
+            result.castling |= result.pieceAt(0) == FIGURES + ROOK ? BLACK_QUEEN_SIDE : 0;
+        }
+        result.key = Zobrist.hash(result);
+        return result;
+    }
+
+    /**
+     * Creates the position described by {@code source} with {@code team} to move.
+     *
+     * @see #of(Snapshot, Team)
+     * @see Snapshot#parse(String[][])
+     */
+    public static Position of(final String[][] source, final Team team) {
+        return of(Snapshot.parse(source), team);
+    }
+
+    /**
+     * Creates the position currently shown by {@code board} with {@code team} to
+     * move.
+     *
+     * @see #of(Snapshot, Team)
+     */
+    public static Position of(final Board board, final Team team) {
+        assert board != null : "board == null";
+        return of(board.snapshot(), team);
+    }
+
+    /**
+     * One bitboard per piece, indexed by {@code side * FIGURES + figure}.
+     */
+    final long[] pieces;
+
+    /**
+     * One bitboard per side.
+     */
+    final long[] sides;
+
+    long occupancy;
+
+    /**
+     * The piece on each square or {@code -1}.
+     */
+    final int[] squares;
+
+    int side;
+
+    int castling;
+
+    /**
+     * The square a pawn may be captured on en passant or {@code -1}; only set
+     * when such a capture is actually possible.
+     */
+    int enPassant;
+
+    int halfmoves;
+
+    int fullmoves;
+
+    /**
+     * The Zobrist key, maintained incrementally.
+     */
+    long key;
+
+    /**
+     * The state of the evaluator attached, told about every piece put and
+     * removed, or {@code null}.
+     */
+    private Evaluator.Accumulator accumulator;
+
+    /**
+     * The number of moves made and not yet unmade.
+     */
+    private int ply;
+
+    /**
+     * The state {@link #unmake(int)} restores, packed per ply as captured piece,
+     * castling rights, en passant square and halfmove clock.
+     */
+    private long[] history;
+
+    /**
+     * The key before each move made, indexed like {@link #history}.
+     */
+    private long[] keys;
+
+    private Position() {
+        this.pieces = new long[Square.KINDS];
+        this.sides = new long[2];
+        this.squares = new int[64];
+        Arrays.fill(this.squares, -1);
+        this.enPassant = -1;
+        this.fullmoves = 1;
+        this.history = new long[INITIAL_CAPACITY];
+        this.keys = new long[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the standard starting position.
+     */
+    public static Position standard() {
+        return fromFen(STANDARD);
+    }
+
+    /**
+     * Returns an independent copy of {@code this} including its move history, so
+     * that the copy detects repetitions of positions played before and may take
+     * back the moves made on {@code this}.
+     */
+    public Position copy() {
+        final Position result = new Position();
+        System.arraycopy(this.pieces, 0, result.pieces, 0, this.pieces.length);
+        System.arraycopy(this.sides, 0, result.sides, 0, this.sides.length);
+        System.arraycopy(this.squares, 0, result.squares, 0, this.squares.length);
+        result.occupancy = this.occupancy;
+        result.side = this.side;
+        result.castling = this.castling;
+        result.enPassant = this.enPassant;
+        result.halfmoves = this.halfmoves;
+        result.fullmoves = this.fullmoves;
+        result.key = this.key;
+        if (this.ply > result.keys.length) {
+            result.history = new long[this.history.length];
+            result.keys = new long[this.keys.length];
+        }
+        System.arraycopy(this.history, 0, result.history, 0, this.ply);
+        System.arraycopy(this.keys, 0, result.keys, 0, this.ply);
+        result.ply = this.ply;
+        result.accumulator = this.accumulator != null ? this.accumulator.copy() : null;
+        return result;
+    }
+
+    /**
+     * Lets {@code evaluator} maintain its {@link Evaluator#accumulator() state}
+     * for {@code this} from now on, replacing that of any evaluator attached
+     * before.
+     *
+     * @param evaluator the evaluator to attach.
+     */
+    public void attach(final Evaluator evaluator) {
+        assert evaluator != null : "evaluator == null";
+        this.accumulator = evaluator.accumulator();
+        if (this.accumulator != null) {
+            for (int square = 0; square < 64; square++) {
+                if (this.squares[square] >= 0) {
+                    this.accumulator.put(this.squares[square], square);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the state of the evaluator attached or {@code null}.
+     */
+    public Evaluator.Accumulator accumulator() {
+        return this.accumulator;
+    }
+
+    /**
+     * Returns the side to move, either {@link #WHITE} or {@link #BLACK}.
+     */
+    public int side() {
+        return this.side;
+    }
+
+    public int castling() {
+        return this.castling;
+    }
+
+    public int enPassant() {
+        return this.enPassant;
+    }
+
+    public int halfmoves() {
+        return this.halfmoves;
+    }
+
+    public int fullmoves() {
+        return this.fullmoves;
+    }
+
+    /**
+     * Returns the Zobrist key of {@code this}.
+     *
+     * @see Zobrist
+     */
+    public long key() {
+        return this.key;
+    }
+
+    /**
+     * Returns {@code true} if {@code this} occurred before since the last capture
+     * or pawn move, as far as the moves made on {@code this} reveal.
+     */
+    public boolean isRepetition() {
+        final int limit = Math.max(0, this.ply - this.halfmoves);
+        for (int i = this.ply - 2; i >= limit; i -= 2) {
+            if (this.keys[i] == this.key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the piece on {@code square} or {@code -1} if it is empty.
+     */
+    public int pieceAt(final int square) {
+        return this.squares[square];
+    }
+
+    /**
+     * Returns the bitboard of {@code figure} of {@code side}.
+     */
+    public long pieces(final int side, final int figure) {
+        return this.pieces[side * FIGURES + figure];
+    }
+
+    /**
+     * Returns the bitboard of all pieces of {@code side}.
+     */
+    public long side(final int side) {
+        return this.sides[side];
+    }
+
+    public long occupancy() {
+        return this.occupancy;
+    }
+
+    public int king(final int side) {
+        return Bitboards.first(this.pieces[side * FIGURES + KING]);
+    }
+
+    /**
+     * Returns {@code true} if the side to move is in check.
+     */
+    public boolean inCheck() {
+        return this.isAttacked(this.king(this.side), this.side ^ 1);
+    }
+
+    /**
+     * Returns {@code true} if {@code square} is attacked by any piece of {@code by}.
+     */
+    public boolean isAttacked(final int square, final int by) {
+        return this.attackers(square, by, this.occupancy) != 0L;
+    }
+
+    /**
+     * Returns every piece of {@code by} attacking {@code square} if the board were
+     * occupied as given by {@code occupancy}.
+     */
+    public long attackers(final int square, final int by, final long occupancy) {
+        final int base = by * FIGURES;
+        final long queens = this.pieces[base + QUEEN];
+        return (Bitboards.PAWN_ATTACKS[by ^ 1][square] & this.pieces[base + PAWN])
+                | (Bitboards.KNIGHT_ATTACKS[square] & this.pieces[base + KNIGHT])
+                | (Bitboards.KING_ATTACKS[square] & this.pieces[base + KING])
+                | (Bitboards.bishopAttacks(square, occupancy) & (this.pieces[base + BISHOP] | queens))
+                | (Bitboards.rookAttacks(square, occupancy) & (this.pieces[base + ROOK] | queens));
+    }
+
+    /**
+     * Plays {@code move}, which must be pseudo-legal in {@code this}.
+     *
+     * @param move the move to play.
+     * @see MoveGenerator
+     */
+    public void make(final int move) {
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int flag = Move.flag(move);
+        final int us = this.side;
+        final int piece = this.squares[from];
+        this.ensureCapacity();
+        this.keys[this.ply] = this.key;
+        int captured = -1;
+        if (flag == Move.EN_PASSANT) {
+            captured = this.remove(us == WHITE ? to + 8 : to - 8);
+        } else if ((flag & Move.CAPTURE) != 0) {
+            captured = this.remove(to);
+        }
+        final int castling = this.castling;
+        final int enPassant = this.enPassant;
+        this.history[this.ply++] = pack(captured, castling, enPassant, this.halfmoves);
+        this.remove(from);
+        this.put((flag & Move.PROMOTION) != 0 ? us * FIGURES + Move.promotion(move) : piece, to);
+        if (flag == Move.KING_CASTLE) {
+            this.put(this.remove(to + 1), to - 1);
+        } else if (flag == Move.QUEEN_CASTLE) {
+            this.put(this.remove(to - 2), to + 1);
+        }
+        this.halfmoves = captured >= 0 || piece == us * FIGURES + PAWN ? 0 : this.halfmoves + 1;
+        this.castling &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        this.side = us ^ 1;
+        this.enPassant = -1;
+        if (flag == Move.DOUBLE_PUSH && this.isCapturable((from + to) >>> 1)) {
+            this.enPassant = (from + to) >>> 1;
+        }
+        if (us == BLACK) {
+            this.fullmoves++;
+        }
+        long key = this.key ^ Zobrist.SIDE ^ Zobrist.CASTLING[castling] ^ Zobrist.CASTLING[this.castling];
+        if (enPassant >= 0) {
+            key ^= Zobrist.EN_PASSANT[enPassant & 7];
+        }
+        if (this.enPassant >= 0) {
+            key ^= Zobrist.EN_PASSANT[this.enPassant & 7];
+        }
+        this.key = key;
+    }
+
+    /**
+     * Takes back {@code move}, which must be the move most recently played.
+     *
+     * @param move the move to take back.
+     */
+    public void unmake(final int move) {
+        final int from = Move.from(move);
+        final int to = Move.to(move);
+        final int flag = Move.flag(move);
+        final int us = this.side ^ 1;
+        final long state = this.history[--this.ply];
+        this.side = us;
+        if (us == BLACK) {
+            this.fullmoves--;
+        }
+        if (flag == Move.KING_CASTLE) {
+            this.put(this.remove(to - 1), to + 1);
+        } else if (flag == Move.QUEEN_CASTLE) {
+            this.put(this.remove(to + 1), to - 2);
+        }
+        final int piece = this.remove(to);
+        this.put((flag & Move.PROMOTION) != 0 ? us * FIGURES + PAWN : piece, from);
+        final int captured = (int) (state & 0xF) - 1;
+        if (flag == Move.EN_PASSANT) {
+            this.put(captured, us == WHITE ? to + 8 : to - 8);
+        } else if (captured >= 0) {
+            this.put(captured, to);
+        }
+        this.castling = (int) (state >>> 4 & 0xF);
+        this.enPassant = (int) (state >>> 8 & 0x7F) - 1;
+        this.halfmoves = (int) (state >>> 16);
+        this.key = this.keys[this.ply];
+    }
+
+    /**
+     * Passes the right to move to the opponent without moving a piece.
+     */
+    public void makeNull() {
+        this.ensureCapacity();
+        this.keys[this.ply] = this.key;
+        this.history[this.ply++] = pack(-1, this.castling, this.enPassant, this.halfmoves);
+        this.key ^= Zobrist.SIDE;
+        if (this.enPassant >= 0) {
+            this.key ^= Zobrist.EN_PASSANT[this.enPassant & 7];
+        }
+        this.enPassant = -1;
+        this.halfmoves++;
+        this.side ^= 1;
+    }
+
+    /**
+     * Takes back the most recent {@link #makeNull()}.
+     */
+    public void unmakeNull() {
+        final long state = this.history[--this.ply];
+        this.side ^= 1;
+        this.enPassant = (int) (state >>> 8 & 0x7F) - 1;
+        this.halfmoves = (int) (state >>> 16);
+        this.key = this.keys[this.ply];
+    }
+
+    /**
+     * Returns the bitboards of {@code this} in the form accepted by {@link
+     * Snapshot#of(long[])} and {@code Schach.zeige(long[])}.
+     *
+     * @param highlights the bitboard of the squares to highlight.
+     */
+    public long[] toBitboards(final long highlights) {
+        final long[] result = Arrays.copyOf(this.pieces, Square.KINDS + 1);
+        result[Square.KINDS] = highlights;
+        return result;
+    }
+
+    /**
+     * Returns {@code this} as a snapshot that may be published on a {@link Board}.
+     *
+     * @param highlights the bitboard of the squares to highlight.
+     */
+    public Snapshot toSnapshot(final long highlights) {
+        return Snapshot.of(this.toBitboards(highlights));
+    }
+
+    /**
+     * Returns {@code this} as an eight by eight array as accepted by {@code
+     * Schach.zeige(String[][])}.
+     *
+     * @param highlights the bitboard of the squares to highlight.
+     */
+    public String[][] toArray(final long highlights) {
+        final String[][] result = new String[Board.SIZE][Board.SIZE];
+        for (int square = 0; square < 64; square++) {
+            final int piece = this.squares[square];
+            final boolean highlight = (highlights >>> square & 1L) != 0L;
+            final String str = piece < 0
+                    ? " "
+                    : (piece < FIGURES ? Team.WHITE : Team.BLACK).toString()
+                            + Square.FIGURES.charAt(piece % FIGURES);
+            result[square & 7][square >>> 3] = highlight ? str.trim() + "H" : str;
+        }
+        return result;
+    }
+
+    public String toFen() {
+        final StringBuilder out = new StringBuilder(90);
+        for (int y = 0; y < 8; y++) {
+            int empty = 0;
+            for (int x = 0; x < 8; x++) {
+                final int piece = this.squares[y << 3 | x];
+                if (piece < 0) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        out.append(empty);
+                        empty = 0;
+                    }
+                    out.append(SYMBOLS.charAt(piece));
+                }
+            }
+            if (empty > 0) {
+                out.append(empty);
+            }
+            if (y < 7) {
+                out.append('/');
+            }
+        }
+        out.append(this.side == WHITE ? " w " : " b ");
+        if (this.castling == 0) {
+            out.append('-');
+        } else {
+            for (int i = 0; i < 4; i++) {
+                if ((this.castling & 1 << i) != 0) {
+                    out.append("KQkq".charAt(i));
+                }
+            }
+        }
+        out.append(' ').append(this.enPassant < 0 ? "-" : Bitboards.toString(this.enPassant));
+        return out.append(' ').append(this.halfmoves).append(' ').append(this.fullmoves).toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.toFen();
+    }
+
+    /**
+     * Returns {@code true} if a pawn of the side to move could capture on {@code
+     * square} en passant.
+     */
+    private boolean isCapturable(final int square) {
+        if (square < 0) {
+            return false;
+        }
+        final int us = this.side;
+        return (Bitboards.PAWN_ATTACKS[us ^ 1][square] & this.pieces[us * FIGURES + PAWN]) != 0L;
+    }
+
+    /**
+     * Ensures that each team has exactly one king, which move generation and
+     * search rely on.
+     *
+     * @throws IllegalArgumentException thrown otherwise.
+     */
+    private void checkKings() {
+        for (int side = WHITE; side <= BLACK; side++) {
+            final int count = Long.bitCount(this.pieces[side * FIGURES + KING]);
+            if (count != 1) {
+                throw new IllegalArgumentException((side == WHITE ? "White" : "Black")
+                        + " has " + count + " kings instead of one");
+            }
+        }
+    }
+
+    private void ensureCapacity() {
+        if (this.ply == this.history.length) {
+            this.history = Arrays.copyOf(this.history, this.history.length << 1);
+            this.keys = Arrays.copyOf(this.keys, this.keys.length << 1);
+        }
+    }
+
+    void put(final int piece, final int square) {
+        final long bit = 1L << square;
+        this.key ^= Zobrist.PIECES[piece << 6 | square];
+        if (this.accumulator != null) {
+            this.accumulator.put(piece, square);
+        }
+        this.pieces[piece] |= bit;
+        this.sides[piece / FIGURES] |= bit;
+        this.occupancy |= bit;
+        this.squares[square] = piece;
+    }
+
+    int remove(final int square) {
+        final int piece = this.squares[square];
+        final long bit = ~(1L << square);
+        this.key ^= Zobrist.PIECES[piece << 6 | square];
+        if (this.accumulator != null) {
+            this.accumulator.remove(piece, square);
+        }
+        this.pieces[piece] &= bit;
+        this.sides[piece / FIGURES] &= bit;
+        this.occupancy &= bit;
+        this.squares[square] = -1;
+        return piece;
+    }
+
+    private static long pack(final int captured, final int castling, final int enPassant, final int halfmoves) {
+        return (captured + 1) | castling << 4 | (enPassant + 1) << 8 | (long) halfmoves << 16;
+    }
+}
@@ -0,0 +1,566 @@
+package chess.engine;
+
+import static chess.engine.Position.FIGURES;
+import static chess.engine.Position.PAWN;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An iterative deepening alpha-beta search with quiescence search, run by any
+ * number of threads at once in the manner of Lazy SMP.
+ * <p>
+ * Every thread searches the whole tree on its own copy of the root position;
+ * they cooperate solely through the shared {@link TranspositionTable}, which
+ * lets each thread skip subtrees another one has finished already. Every other
+ * helper starts one iteration deeper to spread the threads over the tree. The
+ * deepest iteration completed by any thread determines the {@link Result}.
+ * <p>
+ * Moves are tried in the order of the move stored in the table, captures by
+ * most valuable victim and least valuable attacker, promotions and two killer
+ * moves per ply. Leaves are scored by a pluggable {@link Evaluator}. Instances
+ * search one position at a time.
+ */
+public final class Search implements AutoCloseable {
+
+    /**
+     * The score of being mated right now; mates further away score closer to
+     * zero by one per ply.
+     */
+    public static final int MATE = 32000;
+
+    public static final int MAX_DEPTH = 100;
+
+    private static final int INFINITY = MATE + 1;
+
+    private static final int MAX_PLY = 128;
+
+    /**
+     * The number of nodes between two looks at the clock.
+     */
+    private static final int POLL_INTERVAL = 2048;
+
+    /**
+     * The outcome of a search.
+     */
+    public static final class Result {
+
+        private final Position root;
+
+        private final int[] line;
+
+        private final int score;
+
+        private final int depth;
+
+        private final long nodes;
+
+        private final long time;
+
+        private Result(final Position root,
+                       final int[] line,
+                       final int score,
+                       final int depth,
+                       final long nodes,
+                       final long time) {
+            this.root = root;
+            this.line = line;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.time = time;
+        }
+
+        /**
+         * Returns the best move or {@link Move#NONE} if there is no legal move.
+         */
+        public int move() {
+            return this.line.length > 0 ? this.line[0] : Move.NONE;
+        }
+
+        /**
+         * Returns the principal variation, starting with {@link #move()}.
+         */
+        public int[] line() {
+            return this.line.clone();
+        }
+
+        /**
+         * Returns the score in centipawns from the point of view of the side to
+         * move.
+         */
+        public int score() {
+            return this.score;
+        }
+
+        public int depth() {
+            return this.depth;
+        }
+
+        /**
+         * Returns the nodes visited by all threads.
+         */
+        public long nodes() {
+            return this.nodes;
+        }
+
+        /**
+         * Returns the time taken in nanoseconds.
+         */
+        public long time() {
+            return this.time;
+        }
+
+        public boolean isMate() {
+            return Math.abs(this.score) >= MATE - MAX_PLY;
+        }
+
+        /**
+         * Returns the origin and destination of {@link #move()} as a bitboard.
+         */
+        public long highlights() {
+            final int move = this.move();
+            return move == Move.NONE ? 0L : 1L << Move.from(move) | 1L << Move.to(move);
+        }
+
+        /**
+         * Returns the root position with {@link #highlights()} in the form
+         * accepted by {@code Schach.zeige(long[])}.
+         */
+        public long[] toBitboards() {
+            return this.root.toBitboards(this.highlights());
+        }
+
+        /**
+         * Returns the root position with {@link #highlights()} in the form
+         * accepted by {@code Schach.zeige(String[][])}.
+         */
+        public String[][] toArray() {
+            return this.root.toArray(this.highlights());
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder out = new StringBuilder(64);
+            out.append("depth ").append(this.depth).append(" score ");
+            if (this.isMate()) {
+                final int plies = MATE - Math.abs(this.score);
+                out.append("mate ").append(this.score > 0 ? (plies + 1) / 2 : -(plies / 2));
+            } else {
+                out.append("cp ").append(this.score);
+            }
+            out.append(" nodes ").append(this.nodes).append(" nps ")
+                    .append(this.time > 0L ? this.nodes * 1_000_000_000L / this.time : 0L).append(" pv");
+            for (final int move : this.line) {
+                out.append(' ').append(Move.toString(move));
+            }
+            return out.toString();
+        }
+    }
+
+    private final TranspositionTable table;
+
+    private final Evaluator evaluator;
+
+    private final int threads;
+
+    /**
+     * Runs the helpers, the calling thread being the main one; {@code null} for a
+     * single thread.
+     */
+    private final ExecutorService executor;
+
+    private volatile boolean stopped;
+
+    private volatile long start;
+
+    private volatile long budget;
+
+    /**
+     * Creates a search using every available processor, a table of {@link
+     * TranspositionTable#DEFAULT_SIZE} MiB and a {@link PieceSquareEvaluator}.
+     */
+    public Search() {
+        this(Runtime.getRuntime().availableProcessors(), new TranspositionTable());
+    }
+
+    /**
+     * Creates a search using a {@link PieceSquareEvaluator}.
+     *
+     * @see #Search(int, TranspositionTable, Evaluator)
+     */
+    public Search(final int threads, final TranspositionTable table) {
+        this(threads, table, new PieceSquareEvaluator());
+    }
+
+    /**
+     * @param threads the number of threads searching, including the caller.
+     * @param table the table shared by the threads.
+     * @param evaluator scores the leaves.
+     * @throws IllegalArgumentException thrown when {@code threads < 1}.
+     */
+    public Search(final int threads, final TranspositionTable table, final Evaluator evaluator) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads < 1");
+        }
+        assert table != null : "table == null";
+        assert evaluator != null : "evaluator == null";
+        this.threads = threads;
+        this.table = table;
+        this.evaluator = evaluator;
+        this.executor = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, (final Runnable task) -> {
+            final Thread thread = new Thread(task, "Search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches {@code position} until {@code depth} is completed, {@code millis}
+     * have elapsed or {@link #stop()} is called, whichever comes first.
+     *
+     * @param position the root, left unchanged.
+     * @param depth the depth limit, 1 to {@link #MAX_DEPTH}.
+     * @param millis the time limit, non-positive for none.
+     * @throws IllegalArgumentException thrown when {@code depth} is out of range.
+     */
+    public synchronized Result search(final Position position, final int depth, final long millis) {
+        assert position != null : "position == null";
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("depth < 1 || depth > " + MAX_DEPTH);
+        }
+        this.start = System.nanoTime();
+        this.budget = millis > 0L ? millis * 1_000_000L : Long.MAX_VALUE;
+        this.stopped = false;
+        this.table.newSearch();
+        final Worker[] workers = new Worker[this.threads];
+        final List<Future<?>> futures = new ArrayList<>(this.threads - 1);
+        for (int id = 1; id < workers.length; id++) {
+            workers[id] = new Worker(id, position.copy(), depth);
+            futures.add(this.executor.submit(workers[id]));
+        }
+        workers[0] = new Worker(0, position.copy(), depth);
+        workers[0].run();
+        this.stopped = true;
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException ex) {
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+        Worker best = workers[0];
+        long nodes = 0L;
+        for (final Worker worker : workers) {
+            nodes += worker.nodes;
+            if (worker.depth > best.depth) {
+                best = worker;
+            }
+        }
+        return new Result(position.copy(), best.line, best.score, best.depth, nodes, System.nanoTime() - this.start);
+    }
+
+    /**
+     * Makes a running {@link #search(Position, int, long)} return as soon as
+     * possible.
+     */
+    public void stop() {
+        this.stopped = true;
+    }
+
+    public TranspositionTable getTable() {
+        return this.table;
+    }
+
+    public Evaluator getEvaluator() {
+        return this.evaluator;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    @Override
+    public void close() {
+        this.stop();
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * Converts a mate score relative to the root into one relative to the
+     * current node, as stored in the table.
+     */
+    private static int toTable(final int score, final int ply) {
+        return score >= MATE - MAX_PLY ? score + ply : score <= MAX_PLY - MATE ? score - ply : score;
+    }
+
+    private static int fromTable(final int score, final int ply) {
+        return score >= MATE - MAX_PLY ? score - ply : score <= MAX_PLY - MATE ? score + ply : score;
+    }
+
+    /**
+     * One thread of the search with its own position and buffers.
+     */
+    private final class Worker implements Runnable {
+
+        private final int id;
+
+        private final Position position;
+
+        private final int limit;
+
+        private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+        private final int[][] orders = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+
+        private final int[][] killers = new int[MAX_PLY][2];
+
+        /**
+         * The principal variation found below each ply.
+         */
+        private final int[][] variations = new int[MAX_PLY][MAX_PLY];
+
+        private final int[] lengths = new int[MAX_PLY];
+
+        private int[] line = new int[0];
+
+        private int score;
+
+        private int depth;
+
+        private long nodes;
+
+        Worker(final int id, final Position position, final int limit) {
+            this.id = id;
+            this.position = position;
+            position.attach(Search.this.evaluator);
+            this.limit = limit;
+        }
+
+        @Override
+        public void run() {
+            for (int depth = 1 + (this.id & 1); depth <= this.limit; depth++) {
+                final int score = this.search(-INFINITY, INFINITY, depth, 0);
+                if (Search.this.stopped) {
+                    // an interrupted iteration only helps if nothing else is known
+                    if (this.depth == 0 && this.lengths[0] > 0) {
+                        this.line = Arrays.copyOf(this.variations[0], this.lengths[0]);
+                    }
+                    return;
+                }
+                this.line = Arrays.copyOf(this.variations[0], this.lengths[0]);
+                this.score = score;
+                this.depth = depth;
+                if (MATE - Math.abs(score) <= depth) {
+                    // deeper iterations cannot find a shorter mate
+                    return;
+                }
+            }
+        }
+
+        private int search(int alpha, final int beta, int depth, final int ply) {
+            final Position position = this.position;
+            this.lengths[ply] = 0;
+            if (ply > 0 && (position.halfmoves >= 100 || position.isRepetition())) {
+                return 0;
+            }
+            final boolean check = position.inCheck();
+            if (check) {
+                depth++;
+            }
+            if (depth <= 0 || ply >= MAX_PLY - 1) {
+                return this.quiesce(alpha, beta, ply);
+            }
+            if (this.poll()) {
+                return 0;
+            }
+            final long key = position.key();
+            final long data = Search.this.table.probe(key);
+            int hashMove = Move.NONE;
+            if (data != 0L) {
+                hashMove = TranspositionTable.move(data);
+                if (ply > 0 && TranspositionTable.depth(data) >= depth) {
+                    final int score = fromTable(TranspositionTable.score(data), ply);
+                    final int bound = TranspositionTable.bound(data);
+                    if (bound == TranspositionTable.EXACT
+                            || bound == TranspositionTable.LOWER && score >= beta
+                            || bound == TranspositionTable.UPPER && score <= alpha) {
+                        return score;
+                    }
+                }
+            }
+            final int[] moves = this.moves[ply];
+            final int count = MoveGenerator.legal(position, moves, 0);
+            if (count == 0) {
+                return check ? ply - MATE : 0;
+            }
+            this.order(ply, count, hashMove);
+            final int original = alpha;
+            int best = -INFINITY;
+            int bestMove = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                final int move = this.next(ply, i, count);
+                position.make(move);
+                final int score = -this.search(-beta, -alpha, depth - 1, ply + 1);
+                position.unmake(move);
+                if (Search.this.stopped) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        this.variations[ply][0] = move;
+                        System.arraycopy(this.variations[ply + 1], 0, this.variations[ply], 1, this.lengths[ply + 1]);
+                        this.lengths[ply] = this.lengths[ply + 1] + 1;
+                        if (score >= beta) {
+                            if (!Move.isCapture(move) && !Move.isPromotion(move) && this.killers[ply][0] != move) {
+                                this.killers[ply][1] = this.killers[ply][0];
+                                this.killers[ply][0] = move;
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+            final int bound = best >= beta
+                    ? TranspositionTable.LOWER
+                    : best > original ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            Search.this.table.store(key, Math.min(depth, 0xFF), bound, bestMove, toTable(best, ply));
+            return best;
+        }
+
+        /**
+         * Resolves captures until the position is quiet, so that the evaluation
+         * does not miss pieces hanging at the horizon.
+         */
+        private int quiesce(int alpha, final int beta, final int ply) {
+            final Position position = this.position;
+            this.lengths[ply] = 0;
+            if (this.poll()) {
+                return 0;
+            }
+            final int standPat = Search.this.evaluator.evaluate(position);
+            if (standPat >= beta || ply >= MAX_PLY - 1) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            final int count = MoveGenerator.captures(position, this.moves[ply], 0);
+            this.order(ply, count, Move.NONE);
+            for (int i = 0; i < count; i++) {
+                final int move = this.next(ply, i, count);
+                if (!MoveGenerator.isLegal(position, move)) {
+                    continue;
+                }
+                position.make(move);
+                final int score = -this.quiesce(-beta, -alpha, ply + 1);
+                position.unmake(move);
+                if (Search.this.stopped) {
+                    return 0;
+                }
+                if (score > alpha) {
+                    if (score >= beta) {
+                        return score;
+                    }
+                    alpha = score;
+                }
+            }
+            return alpha;
+        }
+
+        /**
+         * Counts a node and looks at the clock now and then; returns {@code true}
+         * if the search is to stop.
+         */
+        private boolean poll() {
+            if (++this.nodes % POLL_INTERVAL == 0 && this.id == 0
+                    && System.nanoTime() - Search.this.start > Search.this.budget) {
+                Search.this.stopped = true;
+            }
+            return Search.this.stopped;
+        }
+
+        private void order(final int ply, final int count, final int hashMove) {
+            final int[] moves = this.moves[ply];
+            final int[] orders = this.orders[ply];
+            final int[] killers = this.killers[ply];
+            for (int i = 0; i < count; i++) {
+                final int move = moves[i];
+                final int order;
+                if (move == hashMove) {
+                    order = 1 << 30;
+                } else if (Move.isCapture(move)) {
+                    final int victim = Move.flag(move) == Move.EN_PASSANT
+                            ? PAWN
+                            : this.position.squares[Move.to(move)] % FIGURES;
+                    final int attacker = this.position.squares[Move.from(move)] % FIGURES;
+                    order = (1 << 24) + (victim + 1) * 8 - attacker;
+                } else if (Move.isPromotion(move)) {
+                    order = (1 << 23) + Move.promotion(move);
+                } else if (move == killers[0]) {
+                    order = 1 << 22;
+                } else if (move == killers[1]) {
+                    order = 1 << 21;
+                } else {
+                    order = 0;
+                }
+                orders[i] = order;
+            }
+        }
+
+        /**
+         * Moves the most promising of the remaining moves to {@code index} and
+         * returns it.
+         */
+        private int next(final int ply, final int index, final int count) {
+            final int[] moves = this.moves[ply];
+            final int[] orders = this.orders[ply];
+            int best = index;
+            for (int i = index + 1; i < count; i++) {
+                if (orders[i] > orders[best]) {
+                    best = i;
+                }
+            }
+            final int move = moves[best];
+            moves[best] = moves[index];
+            moves[index] = move;
+            final int order = orders[best];
+            orders[best] = orders[index];
+            orders[index] = order;
+            return move;
+        }
+    }
+
+    /**
+     * Analyses a position and prints the result.
+     * <p>
+     * Takes the time limit in milliseconds, optionally followed by the number of
+     * threads and a position in Forsyth-Edwards Notation.
+     */
+    public static void main(final String[] args) {
+        final long millis = args.length > 0 ? Long.parseLong(args[0]) : 5_000L;
+        final int threads = args.length > 1
+                ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        final String fen = args.length > 2
+                ? String.join(" ", Arrays.asList(args).subList(2, args.length))
+                : Position.STANDARD;
+        try (Search search = new Search(threads, new TranspositionTable(256, TranspositionTable.Replacement.AGED_DEPTH))) {
+            final Result result = search.search(Position.fromFen(fen), MAX_DEPTH, millis);
+            System.out.println(String.format(Locale.ROOT, "%d threads: %s", threads, result));
+        }
+    }
+}
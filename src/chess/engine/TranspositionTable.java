@@ -0,0 +1,255 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size cache of search results keyed by {@link Position#key()}, shared
+ * by any number of threads without locking.
+ * <p>
+ * Entries occupy two adjacent {@code long}s, the key exclusively or'ed with the
+ * data followed by the data itself. A probe only accepts an entry if both halves
+ * combine to the probed key again, so entries torn by concurrent stores are
+ * simply treated as missing. Two entries form a bucket; which of them a store
+ * replaces is governed by a {@link Replacement} policy.
+ * <p>
+ * The data of an entry packs the depth into bits 0 to 7, the {@link #EXACT
+ * bound} into bits 8 and 9, the generation into bits 10 to 15, the best move
+ * into bits 16 to 31 and the score into bits 32 to 47. Entries stored via
+ * {@link #storeCount(long, int, long)} keep a node count in bits 16 to 63
+ * instead.
+ */
+public final class TranspositionTable {
+
+    /**
+     * Decides which entry of a full bucket a store replaces.
+     */
+    public enum Replacement {
+
+        /**
+         * Always replaces the shallower entry.
+         */
+        ALWAYS,
+
+        /**
+         * Replaces the shallower entry only by one of at least the same depth.
+         */
+        DEPTH,
+
+        /**
+         * Replaces the entry that is shallowest after deducting its age, so that
+         * entries of past searches give way eventually.
+         */
+        AGED_DEPTH
+    }
+
+    /**
+     * The score is an upper bound, i.e. the search failed low.
+     */
+    public static final int UPPER = 1;
+
+    /**
+     * The score is a lower bound, i.e. the search failed high.
+     */
+    public static final int LOWER = 2;
+
+    public static final int EXACT = UPPER | LOWER;
+
+    public static final int DEFAULT_SIZE = 16;
+
+    /**
+     * The largest size in MiB; caps the table at 2^28 entries.
+     */
+    public static final int MAX_SIZE = 4096;
+
+    private static final int GENERATIONS = 64;
+
+    /**
+     * Two entries of two {@code long}s each.
+     */
+    private static final int BUCKET = 4;
+
+    private final long[] table;
+
+    private final int mask;
+
+    private volatile Replacement replacement;
+
+    private volatile int generation;
+
+    /**
+     * Creates a table of {@link #DEFAULT_SIZE} MiB replacing {@link
+     * Replacement#AGED_DEPTH aged} entries.
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE, Replacement.AGED_DEPTH);
+    }
+
+    /**
+     * Creates a table of at most {@code megabytes} MiB, rounded down to a power
+     * of two.
+     *
+     * @throws IllegalArgumentException thrown when {@code megabytes} lies outside
+     *         1 to {@link #MAX_SIZE}.
+     */
+    public TranspositionTable(final int megabytes, final Replacement replacement) {
+        if (megabytes < 1 || megabytes > MAX_SIZE) {
+            throw new IllegalArgumentException("megabytes < 1 || megabytes > " + MAX_SIZE);
+        }
+        assert replacement != null : "replacement == null";
+        // 32 bytes per bucket
+        final int buckets = Integer.highestOneBit(megabytes) << 15;
+        this.table = new long[buckets * BUCKET];
+        this.mask = buckets - 1;
+        this.replacement = replacement;
+    }
+
+    public static int depth(final long data) {
+        return (int) data & 0xFF;
+    }
+
+    public static int bound(final long data) {
+        return (int) (data >>> 8) & 3;
+    }
+
+    public static int move(final long data) {
+        return (int) (data >>> 16) & 0xFFFF;
+    }
+
+    public static int score(final long data) {
+        return (short) (data >>> 32);
+    }
+
+    public static long count(final long data) {
+        return data >>> 16;
+    }
+
+    /**
+     * Returns the data stored for {@code key} or {@code 0} if there is none; a
+     * hit always has a nonzero {@link #bound(long) bound}.
+     */
+    public long probe(final long key) {
+        final long[] table = this.table;
+        final int index = this.index(key);
+        for (int i = index; i < index + BUCKET; i += 2) {
+            final long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0L) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result for {@code key}, subject to the {@link Replacement}
+     * policy.
+     *
+     * @param depth the remaining depth searched, 0 to 255.
+     * @param bound one of {@link #UPPER}, {@link #LOWER} and {@link #EXACT}.
+     * @param move the best move or {@link Move#NONE}.
+     * @param score the score, within the range of a {@code short}.
+     */
+    public void store(final long key, final int depth, final int bound, final int move, final int score) {
+        assert depth >= 0 && depth <= 0xFF : "depth < 0 || depth > 255";
+        assert bound >= UPPER && bound <= EXACT : "bound < UPPER || bound > EXACT";
+        assert score >= Short.MIN_VALUE && score <= Short.MAX_VALUE : "score out of range";
+        final long data = depth | bound << 8 | this.generation << 10 | (move & 0xFFFFL) << 16
+                | (score & 0xFFFFL) << 32;
+        this.write(key, depth, data);
+    }
+
+    /**
+     * Stores the number of leaf nodes below {@code key} at {@code depth}, see
+     * {@link Perft}.
+     */
+    public void storeCount(final long key, final int depth, final long count) {
+        assert depth >= 0 && depth <= 0xFF : "depth < 0 || depth > 255";
+        assert count >= 0L && count < 1L << 48 : "count out of range";
+        this.write(key, depth, depth | EXACT << 8 | this.generation << 10 | count << 16);
+    }
+
+    /**
+     * Starts a new generation, which ages all entries stored so far.
+     */
+    public void newSearch() {
+        this.generation = (this.generation + 1) % GENERATIONS;
+    }
+
+    /**
+     * Removes all entries; must not run concurrently with other methods.
+     */
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.generation = 0;
+    }
+
+    /**
+     * Returns the permille of entries sampled that belong to the current
+     * generation.
+     */
+    public int hashfull() {
+        final int samples = Math.min(1000, this.table.length >>> 1);
+        final int generation = this.generation;
+        int result = 0;
+        for (int i = 0; i < samples; i++) {
+            final long data = this.table[2 * i + 1];
+            if (data != 0L && (int) (data >>> 10 & GENERATIONS - 1) == generation) {
+                result++;
+            }
+        }
+        return result * 1000 / samples;
+    }
+
+    public Replacement getReplacement() {
+        return this.replacement;
+    }
+
+    public void setReplacement(final Replacement replacement) {
+        assert replacement != null : "replacement == null";
+        this.replacement = replacement;
+    }
+
+    /**
+     * Returns the capacity in entries.
+     */
+    public int capacity() {
+        return this.table.length >>> 1;
+    }
+
+    private int index(final long key) {
+        // the low bits select the bucket, the whole key verifies the entry
+        return ((int) key & this.mask) * BUCKET;
+    }
+
+    private void write(final long key, final int depth, final long data) {
+        final long[] table = this.table;
+        final int index = this.index(key);
+        int victim = -1;
+        int worst = Integer.MAX_VALUE;
+        for (int i = index; i < index + BUCKET; i += 2) {
+            final long old = table[i + 1];
+            if (old == 0L || (table[i] ^ old) == key) {
+                victim = i;
+                worst = Integer.MIN_VALUE;
+                break;
+            }
+            final int value = this.value(old);
+            if (value < worst) {
+                victim = i;
+                worst = value;
+            }
+        }
+        if (this.replacement == Replacement.DEPTH && depth < worst) {
+            return;
+        }
+        table[victim] = key ^ data;
+        table[victim + 1] = data;
+    }
+
+    private int value(final long data) {
+        if (this.replacement != Replacement.AGED_DEPTH) {
+            return depth(data);
+        }
+        final int age = (this.generation - (int) (data >>> 10 & GENERATIONS - 1) + GENERATIONS) & GENERATIONS - 1;
+        return depth(data) - 8 * age;
+    }
+}
@@ -0,0 +1,110 @@
+package chess.engine;
+
+import chess.internal.Snapshot;
+import chess.internal.Square;
+import chess.internal.Team;
+
+/**
+ * The random keys whose exclusive or identifies a position with overwhelming
+ * probability.
+ * <p>
+ * {@link Position} maintains its key incrementally; the methods below compute
+ * keys from scratch, e.g. to verify the former or to hash a displayed {@link
+ * Snapshot}. The keys are derived from a fixed seed and therefore identical
+ * across runs.
+ */
+public final class Zobrist {
+
+    /**
+     * One key per piece and square, indexed by {@code piece * 64 + square}.
+     */
+    static final long[] PIECES = new long[Square.KINDS * 64];
+
+    /**
+     * One key per combination of castling rights.
+     */
+    static final long[] CASTLING = new long[16];
+
+    /**
+     * One key per file an en passant capture is possible on.
+     */
+    static final long[] EN_PASSANT = new long[8];
+
+    /**
+     * The key toggled whenever black is to move.
+     */
+    static final long SIDE;
+
+    static {
+        final long[] state = { 0x3243F6A8885A308DL };
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = next(state);
+        }
+        // combine the four rights so that toggling one toggles a fixed key
+        final long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            rights[i] = next(state);
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            for (int right = 0; right < rights.length; right++) {
+                if ((i & 1 << right) != 0) {
+                    CASTLING[i] ^= rights[right];
+                }
+            }
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = next(state);
+        }
+        SIDE = next(state);
+    }
+
+    /**
+     * Computes the key of {@code position} from scratch.
+     */
+    public static long hash(final Position position) {
+        assert position != null : "position == null";
+        long result = 0L;
+        for (int square = 0; square < 64; square++) {
+            final int piece = position.pieceAt(square);
+            if (piece >= 0) {
+                result ^= PIECES[piece << 6 | square];
+            }
+        }
+        result ^= CASTLING[position.castling()];
+        if (position.enPassant() >= 0) {
+            result ^= EN_PASSANT[position.enPassant() & 7];
+        }
+        return position.side() == Position.BLACK ? result ^ SIDE : result;
+    }
+
+    /**
+     * Computes the key of the pieces shown by {@code snapshot}, ignoring
+     * highlighting; equals the key of a {@link Position} with white to move and
+     * neither castling rights nor en passant square.
+     */
+    public static long hash(final Snapshot snapshot) {
+        assert snapshot != null : "snapshot == null";
+        long result = 0L;
+        for (int piece = 0; piece < Square.KINDS; piece++) {
+            final Team team = piece < Position.FIGURES ? Team.WHITE : Team.BLACK;
+            final char figure = Square.FIGURES.charAt(piece % Position.FIGURES);
+            for (long bits = snapshot.pieces(team, figure); bits != 0L; bits &= bits - 1L) {
+                result ^= PIECES[piece << 6 | Bitboards.first(bits)];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Advances a SplitMix64 generator.
+     */
+    private static long next(final long[] state) {
+        long z = state[0] += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private Zobrist() {
+    }
+}
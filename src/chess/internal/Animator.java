@@ -0,0 +1,294 @@
+package chess.internal;
+
+import javax.swing.Timer;
+import java.awt.EventQueue;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Slides the pieces of a {@link Renderer} from the position shown to the next
+ * one instead of letting them jump.
+ * <p>
+ * Transitions are queued and played one after another, driven by a Swing timer
+ * firing at {@link #FRAMES_PER_SECOND}. The position of every moving piece is
+ * derived from the time elapsed rather than the number of frames, and the timer
+ * coalesces ticks the event dispatch thread could not keep up with, so a busy
+ * machine skips frames instead of slowing the animation down or piling events
+ * up. Which pieces move is deduced by comparing both positions: each square a
+ * kind of piece arrives at is paired with the nearest square that kind left;
+ * pieces without a counterpart, e.g. captured or promoted ones, simply
+ * disappear or appear. Instances are confined to the event dispatch thread.
+ */
+public final class Animator implements ActionListener {
+
+    public static final int FRAMES_PER_SECOND = 60;
+
+    /**
+     * The duration of a transition in milliseconds unless stated otherwise.
+     */
+    public static final long DEFAULT_DURATION = 300L;
+
+    private static final class Transition {
+
+        private final Snapshot target;
+
+        private final long duration;
+
+        private final CompletableFuture<Boolean> future;
+
+        private Transition(final Snapshot target, final long duration, final CompletableFuture<Boolean> future) {
+            this.target = target;
+            this.duration = duration;
+            this.future = future;
+        }
+    }
+
+    private final Renderer owner;
+
+    private final Queue<Transition> pending;
+
+    private final Timer timer;
+
+    private Transition current;
+
+    /**
+     * The time in nanoseconds {@link #current} started at.
+     */
+    private long start;
+
+    /**
+     * The kinds of the moving pieces followed by the squares they move from and
+     * to, {@link #count} triples in total.
+     */
+    private final int[] moves;
+
+    private int count;
+
+    /**
+     * The bounds of each moving piece as painted last, to be repainted on the
+     * next frame.
+     */
+    private final Rectangle[] bounds;
+
+    /**
+     * The progress of {@link #current} between zero and one, eased.
+     */
+    private double progress;
+
+    public Animator(final Renderer owner) {
+        assert owner != null : "owner == null";
+        this.owner = owner;
+        this.pending = new ArrayDeque<>();
+        this.timer = new Timer(1000 / FRAMES_PER_SECOND, this);
+        this.timer.setCoalesce(true);
+        this.moves = new int[3 * Long.SIZE];
+        this.bounds = new Rectangle[Long.SIZE];
+        for (int i = 0; i < this.bounds.length; i++) {
+            this.bounds[i] = new Rectangle();
+        }
+    }
+
+    /**
+     * Queues a transition to {@code target} taking {@code duration}
+     * milliseconds, which starts once all transitions queued before are done.
+     *
+     * @param target the position to move to.
+     * @param duration the duration of the transition in milliseconds.
+     * @param future completed with {@code true} once {@code target} is shown.
+     */
+    public void enqueue(final Snapshot target,
+                        final long duration,
+                        final CompletableFuture<Boolean> future) {
+        assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
+        assert target != null : "target == null";
+        assert future != null : "future == null";
+        this.pending.add(new Transition(target, Math.max(duration, 0L), future));
+        if (this.current == null) {
+            this.next(System.nanoTime());
+        }
+    }
+
+    /**
+     * Completes every queued transition at once, showing the target of the last
+     * one, e.g. before a position is shown without animation.
+     */
+    public void skip() {
+        assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
+        if (this.current != null) {
+            this.finish();
+        }
+        Transition transition;
+        while ((transition = this.pending.poll()) != null) {
+            this.owner.repaint(this.owner.getBoard().publish(transition.target));
+            transition.future.complete(Boolean.TRUE);
+        }
+        this.timer.stop();
+    }
+
+    /**
+     * Returns {@code true} if a transition is playing.
+     */
+    public boolean isRunning() {
+        return this.current != null;
+    }
+
+    @Override
+    public void actionPerformed(final ActionEvent event) {
+        final long now = System.nanoTime();
+        if (this.current == null) {
+            this.timer.stop();
+            return;
+        }
+        final long elapsed = now - this.start;
+        final long duration = this.current.duration * 1_000_000L;
+        if (elapsed >= duration) {
+            this.finish();
+            this.next(now);
+        } else {
+            final double t = (double) elapsed / duration;
+            // eases in and out, so that pieces neither start nor stop abruptly
+            this.progress = t * t * (3.0 - 2.0 * t);
+            this.invalidate();
+        }
+    }
+
+    /**
+     * Paints the moving pieces at their current positions over the board.
+     */
+    void paint(final Graphics2D graphics,
+               final SpriteCache sprites,
+               final GraphicsConfiguration configuration) {
+        if (this.current == null) {
+            return;
+        }
+        final int length = this.owner.getTileLength();
+        for (int i = 0; i < this.count; i++) {
+            final Rectangle bounds = this.locate(i);
+            final BufferedImage sprite = sprites.get(Square.valueOf(this.moves[3 * i], false), length,
+                    configuration);
+            if (sprite != null) {
+                graphics.drawImage(sprite, bounds.x, bounds.y, null);
+            }
+        }
+    }
+
+    /**
+     * Starts the next pending transition, if any.
+     */
+    private void next(final long now) {
+        this.current = this.pending.poll();
+        if (this.current == null) {
+            this.timer.stop();
+            return;
+        }
+        final Board board = this.owner.getBoard();
+        final Snapshot source = board.snapshot();
+        final Snapshot target = this.current.target;
+        // the target with the squares the pieces move to still as they were
+        Snapshot base = target;
+        this.count = 0;
+        for (int kind = 0; kind < Square.KINDS; kind++) {
+            long left = 0L;
+            long arrived = 0L;
+            for (int index = 0; index < source.size * source.size; index++) {
+                final boolean before = source.get(index % source.size, index / source.size).kind == kind;
+                final boolean after = target.get(index % target.size, index / target.size).kind == kind;
+                if (before && !after) {
+                    left |= 1L << index;
+                } else if (after && !before) {
+                    arrived |= 1L << index;
+                }
+            }
+            for (long bits = arrived; bits != 0L && left != 0L; bits &= bits - 1L) {
+                final int to = Long.numberOfTrailingZeros(bits);
+                final int from = nearest(left, to, target.size);
+                left &= ~(1L << from);
+                final int x = to % target.size;
+                final int y = to / target.size;
+                base = base.with(x, y, Square.valueOf(source.get(x, y).kind, target.get(x, y).highlight));
+                this.moves[3 * this.count] = kind;
+                this.moves[3 * this.count + 1] = from;
+                this.moves[3 * this.count + 2] = to;
+                this.count++;
+            }
+        }
+        this.owner.repaint(board.publish(base));
+        if (this.count == 0 || this.current.duration == 0L) {
+            this.finish();
+            this.next(now);
+            return;
+        }
+        this.start = now;
+        this.progress = 0.0;
+        for (int i = 0; i < this.count; i++) {
+            this.bounds[i].setBounds(this.locate(i));
+        }
+        this.invalidate();
+        if (!this.timer.isRunning()) {
+            this.timer.start();
+        }
+    }
+
+    /**
+     * Shows the target of {@link #current} and completes its future.
+     */
+    private void finish() {
+        for (int i = 0; i < this.count; i++) {
+            this.owner.repaint(this.bounds[i]);
+        }
+        this.count = 0;
+        this.owner.repaint(this.owner.getBoard().publish(this.current.target));
+        this.current.future.complete(Boolean.TRUE);
+        this.current = null;
+    }
+
+    /**
+     * Repaints the area each moving piece covered on the last frame and covers
+     * on the next.
+     */
+    private void invalidate() {
+        for (int i = 0; i < this.count; i++) {
+            this.owner.repaint(this.bounds[i]);
+            this.bounds[i].setBounds(this.locate(i));
+            this.owner.repaint(this.bounds[i]);
+        }
+    }
+
+    /**
+     * Returns the bounds of moving piece {@code i} at {@link #progress}.
+     */
+    private Rectangle locate(final int i) {
+        final int size = this.owner.getBoard().size;
+        final Rectangle from = this.owner.getTile(this.moves[3 * i + 1] % size, this.moves[3 * i + 1] / size);
+        final Rectangle to = this.owner.getTile(this.moves[3 * i + 2] % size, this.moves[3 * i + 2] / size);
+        from.x += (int) Math.round((to.x - from.x) * this.progress);
+        from.y += (int) Math.round((to.y - from.y) * this.progress);
+        return from;
+    }
+
+    /**
+     * Returns the square of {@code squares} closest to {@code index}.
+     */
+    private static int nearest(final long squares, final int index, final int size) {
+        int result = -1;
+        int best = Integer.MAX_VALUE;
+        for (long bits = squares; bits != 0L; bits &= bits - 1L) {
+            final int candidate = Long.numberOfTrailingZeros(bits);
+            final int dx = candidate % size - index % size;
+            final int dy = candidate / size - index / size;
+            final int distance = dx * dx + dy * dy;
+            if (distance < best) {
+                best = distance;
+                result = candidate;
+            }
+        }
+        return result;
+    }
+}
@@ -1,12 +1,22 @@
 package chess.internal;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class Board {
 
     public static final int SIZE = 8;
 
-    private final Square[] squares;
+    /**
+     * The most recently published position. Readers obtain a consistent view by
+     * loading the reference once; writers never mutate a published instance.
+     */
+    private final AtomicReference<Snapshot> current;
 
-    private final Object lock;
+    /**
+     * The bitboard of all squares changed since they were last painted.
+     */
+    private final AtomicLong dirty;
 
     public final int size;
 
@@ -18,70 +28,161 @@ public class Board {
      */
     public Board(final String[][] source) {
         assert source != null : "source == null";
-        this.size = source.length;
-        this.squares = new Square[this.size * this.size];
-        this.lock = new Object();
-        this.apply(source);
-    }
-
-    public void apply(final String[][] source) {
-        if (source != null && source.length == 8) {
-            for (int i = 0; i < this.size; i++) {
-                final String[] chunk = source[i];
-                if (chunk != null && chunk.length == SIZE) {
-                    for (int j = 0; j < this.size; j++) {
-                        final String str = chunk[j];
-                        if (Square.validate(str)) {
-                            this.set(i, j, Square.create(str));
-                        } else {
-                            System.err.println("Die Koordinate (" + i + "," + j + ")"
-                                    + " beinhaltet die unbekannte Bezeichnung \""
-                                    + str + "\"");
-                            this.set(i, j, Square.create(null));
-                        }
-                    }
-                } else {
-                    throw new IllegalArgumentException("source[" + i
-                            + "] == null || source[" + i + "].length != 8");
-                }
-            }
-        } else {
-            throw new IllegalArgumentException("source == null || source.length != 8");
+        final Snapshot initial = Snapshot.parse(source);
+        this.size = initial.size;
+        this.current = new AtomicReference<>(initial);
+        this.dirty = new AtomicLong(initial.mask());
+    }
+
+    /**
+     * Replaces the contents of {@code this} with {@code source} at once.
+     * <p>
+     * Nothing is published when {@code source} is invalid.
+     *
+     * @param source an eight by eight array describing the contents of {@code this}.
+     * @return the bitboard of all squares changed since they were last painted.
+     * @throws IllegalArgumentException thrown when {@code source} is invalid in any way.
+     */
+    public long apply(final String[][] source) {
+        return this.publish(Snapshot.parse(source));
+    }
+
+    /**
+     * Replaces the contents of {@code this} with {@code snapshot} at once.
+     * <p>
+     * The method never blocks and may be called from any thread.
+     *
+     * @param snapshot the position to publish.
+     * @return the bitboard of all squares changed since they were last painted.
+     */
+    public long publish(final Snapshot snapshot) {
+        assert snapshot != null : "snapshot == null";
+        assert snapshot.size == this.size : "snapshot.size != this.size";
+        final long start = System.nanoTime();
+        final Snapshot previous = this.current.getAndSet(snapshot);
+        final long changed = snapshot.diff(previous);
+        final long pending = this.mark(changed);
+        Metrics.APPLY.recordSince(start);
+        if (pending != 0L && changed != 0L) {
+            // the previous position has not been painted completely yet
+            Metrics.coalesced();
         }
+        return pending | changed;
+    }
+
+    /**
+     * Marks the squares in {@code squares} as changed.
+     *
+     * @param squares a bitboard of the squares in question.
+     * @return the bitboard of all squares changed since they were last painted.
+     */
+    public long invalidate(final long squares) {
+        return this.mark(squares) | squares;
+    }
+
+    /**
+     * Marks the squares in {@code squares} as changed and returns the bitboard of
+     * all squares changed before.
+     */
+    private long mark(final long squares) {
+        long expected;
+        do {
+            expected = this.dirty.get();
+        } while (!this.dirty.compareAndSet(expected, expected | squares));
+        return expected;
+    }
+
+    /**
+     * Returns the bitboard of all squares changed since they were last painted.
+     */
+    public long dirty() {
+        return this.dirty.get();
+    }
+
+    /**
+     * Marks the squares in {@code squares} as painted.
+     *
+     * @param squares a bitboard of the squares in question.
+     */
+    public void clean(final long squares) {
+        long expected;
+        do {
+            expected = this.dirty.get();
+        } while (!this.dirty.compareAndSet(expected, expected & ~squares));
+    }
+
+    /**
+     * Returns the most recently published position.
+     */
+    public Snapshot snapshot() {
+        return this.current.get();
     }
 
     public void set(final int x, final int y, final Square value) {
         assert x >= 0 && x < this.size : "x < 0 || x >= this.size";
         assert y >= 0 && y < this.size : "y < 0 || x >= this.size";
-        synchronized (this.lock) {
-            this.squares[y * this.size + x] = value;
-        }
+        Snapshot expected;
+        do {
+            expected = this.current.get();
+        } while (!this.current.compareAndSet(expected, expected.with(x, y, value)));
+        this.invalidate(1L << expected.bit(x, y));
     }
 
     public Square get(final int x, final int y) {
         assert x >= 0 && x < this.size : "x < 0 || x >= this.size";
         assert y >= 0 && y < this.size : "y < 0 || x >= this.size";
-        synchronized (this.lock) {
-            return this.squares[y * this.size + x];
-        }
+        return this.current.get().get(x, y);
+    }
+
+    /**
+     * Returns the bitboard of all squares occupied by {@code figure} of {@code team}.
+     *
+     * @param team the team in question.
+     * @param figure the figure in question.
+     */
+    public long pieces(final Team team, final char figure) {
+        return this.current.get().pieces(team, figure);
+    }
+
+    /**
+     * Returns the bitboard of all squares occupied by a figure of {@code team}.
+     *
+     * @param team the team in question.
+     */
+    public long occupancy(final Team team) {
+        return this.current.get().occupancy(team);
+    }
+
+    /**
+     * Returns the bitboard of all occupied squares.
+     */
+    public long occupancy() {
+        return this.current.get().occupancy();
+    }
+
+    /**
+     * Returns the bitboard of all highlighted squares.
+     */
+    public long highlights() {
+        return this.current.get().highlights();
+    }
+
+    /**
+     * Returns the bitboard with every square of {@code this} set.
+     */
+    public long mask() {
+        return this.current.get().mask();
+    }
+
+    /**
+     * Returns the index of the bit denoting {@code (x, y)} on a bitboard.
+     */
+    public int bit(final int x, final int y) {
+        return this.current.get().bit(x, y);
     }
 
     @Override
     public String toString() {
-        final StringBuilder out =
-                new StringBuilder(this.size * (this.size + 3) + 2 * this.squares.length);
-        for (int y = 0; y < this.size; y++) {
-            for (int x = 0; x < this.size; x++) {
-                final Square piece = this.get(x, y);
-                out.append('|');
-                if (piece != null) {
-                    out.append(piece.team).append(piece.figure);
-                } else {
-                    out.append("  ");
-                }
-            }
-            out.append('|').append(System.lineSeparator());
-        }
-        return out.toString();
+        return this.current.get().toString();
     }
 }
@@ -0,0 +1,98 @@
+package chess.internal;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands the moves entered on a board to the program, either by calling back or
+ * through a lock-free queue to poll or block on.
+ * <p>
+ * As long as any callback is registered, moves are passed to the callbacks on
+ * the event dispatch thread and never queued; otherwise they are queued. Moves
+ * are only delivered once the program has shown interest by registering a
+ * callback or polling, so that programs still reading {@code System.in} keep
+ * receiving them there. All methods may be called from any thread.
+ */
+public final class Commands {
+
+    private final LinkedTransferQueue<MoveCommand> queue;
+
+    private final List<Task<MoveCommand>> callbacks;
+
+    private volatile boolean subscribed;
+
+    public Commands() {
+        this.queue = new LinkedTransferQueue<>();
+        this.callbacks = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Delivers {@code command} if the program has shown interest in commands.
+     *
+     * @return {@code true} if {@code command} was delivered, {@code false} if it
+     * is up to the caller to pass it on otherwise.
+     */
+    public boolean offer(final MoveCommand command) {
+        assert command != null : "command == null";
+        if (!this.subscribed) {
+            return false;
+        }
+        if (this.callbacks.isEmpty()) {
+            this.queue.offer(command);
+        } else {
+            for (final Task<MoveCommand> callback : this.callbacks) {
+                try {
+                    callback.run(command);
+                } catch (final RuntimeException ex) {
+                    System.err.println("Unable to deliver \"" + command + "\" to \"" + callback + "\"");
+                    ex.printStackTrace(System.err);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Registers {@code callback}, which receives every command from now on on the
+     * event dispatch thread; commands queued before remain in the queue.
+     */
+    public void subscribe(final Task<MoveCommand> callback) {
+        assert callback != null : "callback == null";
+        this.callbacks.add(callback);
+        this.subscribed = true;
+    }
+
+    /**
+     * Returns the oldest queued command without waiting or {@code null} if there
+     * is none.
+     */
+    public MoveCommand poll() {
+        this.subscribed = true;
+        return this.queue.poll();
+    }
+
+    /**
+     * Returns the oldest queued command, waiting at most {@code timeout} for one.
+     *
+     * @return the command or {@code null} if none arrived in time.
+     * @throws InterruptedException thrown when the calling thread is interrupted
+     * while waiting.
+     */
+    public MoveCommand poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        this.subscribed = true;
+        return this.queue.poll(timeout, unit);
+    }
+
+    /**
+     * Returns the oldest queued command, waiting for one as long as necessary.
+     *
+     * @throws InterruptedException thrown when the calling thread is interrupted
+     * while waiting.
+     */
+    public MoveCommand take() throws InterruptedException {
+        this.subscribed = true;
+        return this.queue.take();
+    }
+}
@@ -0,0 +1,211 @@
+package chess.internal;
+
+import java.beans.ConstructorProperties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in nanoseconds with a bounded relative
+ * error.
+ * <p>
+ * Values below {@link #SUB_BUCKETS} have a bucket of their own; every power of
+ * two above is split into {@link #SUB_BUCKETS} linear buckets, so a percentile
+ * is off by at most one eighth. Recording costs a few atomic increments and
+ * never allocates; all methods may be called from any thread.
+ */
+public final class Histogram {
+
+    /**
+     * The number of buckets per power of two.
+     */
+    static final int SUB_BUCKETS = 8;
+
+    private static final int SUB_BITS = 3;
+
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    /**
+     * The summary of a histogram at a single point in time, all durations in
+     * nanoseconds.
+     */
+    public static final class Summary {
+
+        private final long count;
+
+        private final long mean;
+
+        private final long median;
+
+        private final long p90;
+
+        private final long p99;
+
+        private final long p999;
+
+        private final long max;
+
+        @ConstructorProperties({ "count", "mean", "median", "p90", "p99", "p999", "max" })
+        public Summary(final long count,
+                       final long mean,
+                       final long median,
+                       final long p90,
+                       final long p99,
+                       final long p999,
+                       final long max) {
+            this.count = count;
+            this.mean = mean;
+            this.median = median;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getMean() {
+            return this.mean;
+        }
+
+        public long getMedian() {
+            return this.median;
+        }
+
+        public long getP90() {
+            return this.p90;
+        }
+
+        public long getP99() {
+            return this.p99;
+        }
+
+        public long getP999() {
+            return this.p999;
+        }
+
+        public long getMax() {
+            return this.max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + this.count
+                    + " mean=" + this.mean
+                    + " p50=" + this.median
+                    + " p90=" + this.p90
+                    + " p99=" + this.p99
+                    + " p99.9=" + this.p999
+                    + " max=" + this.max;
+        }
+    }
+
+    private final AtomicLongArray counts;
+
+    private final AtomicLong sum;
+
+    private final AtomicLong max;
+
+    public Histogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a single duration; negative values are recorded as zero.
+     *
+     * @param nanos the duration in nanoseconds.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0L);
+        this.counts.incrementAndGet(bucket(value));
+        this.sum.addAndGet(value);
+        long expected;
+        while (value > (expected = this.max.get())) {
+            if (this.max.compareAndSet(expected, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code start} as returned by {@link
+     * System#nanoTime()}.
+     */
+    public void recordSince(final long start) {
+        this.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns a summary of the durations recorded so far.
+     * <p>
+     * Values recorded concurrently may or may not be part of it; the summary is
+     * consistent in itself nevertheless, except that {@link Summary#getMean()}
+     * and {@link Summary#getMax()} may include a value the percentiles miss.
+     */
+    public Summary summary() {
+        final long[] counts = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.counts.get(i);
+            count += counts[i];
+        }
+        if (count == 0L) {
+            return new Summary(0L, 0L, 0L, 0L, 0L, 0L, 0L);
+        }
+        final long max = this.max.get();
+        return new Summary(count,
+                this.sum.get() / count,
+                Math.min(percentile(counts, count, 0.5), max),
+                Math.min(percentile(counts, count, 0.9), max),
+                Math.min(percentile(counts, count, 0.99), max),
+                Math.min(percentile(counts, count, 0.999), max),
+                max);
+    }
+
+    /**
+     * Discards every duration recorded so far.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0L);
+        }
+        this.sum.set(0L);
+        this.max.set(0L);
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the value below which the
+     * fraction {@code quantile} of all values lie.
+     */
+    private static long percentile(final long[] counts, final long count, final double quantile) {
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i + 1 < counts.length ? lowerBound(i + 1) - 1L : Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+    }
+}
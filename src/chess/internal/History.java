@@ -0,0 +1,137 @@
+package chess.internal;
+
+import java.util.Arrays;
+
+/**
+ * The sequence of every snapshot shown, with a cursor to step back and forth.
+ * <p>
+ * Each snapshot is packed into {@link #WORDS} {@code long}s of a single array:
+ * four hold one nibble per square, {@code kind + 1} or zero for an empty
+ * square, the fifth holds the highlighted squares. At 40 bytes per frame, a
+ * whole board costs less than the eight references the root of a tree sharing
+ * unchanged rows would, so frames are simply stored side by side; stepping and
+ * random access are O(1). Instances are not thread-safe; {@link Renderer} uses
+ * its history on the event dispatch thread only.
+ */
+public final class History {
+
+    /**
+     * The number of {@code long}s per frame.
+     */
+    static final int WORDS = 5;
+
+    private static final int SQUARES_PER_WORD = Long.SIZE / 4;
+
+    private long[] frames;
+
+    private int size;
+
+    /**
+     * The index of the frame shown or {@code -1} if there is none.
+     */
+    private int cursor;
+
+    public History() {
+        this.frames = new long[WORDS * 64];
+        this.cursor = -1;
+    }
+
+    /**
+     * Appends {@code snapshot} and moves the cursor onto it.
+     *
+     * @throws IllegalStateException thrown when the history is full.
+     */
+    public void push(final Snapshot snapshot) {
+        assert snapshot != null : "snapshot == null";
+        assert snapshot.size * snapshot.size == Long.SIZE : "snapshot.size != 8";
+        final int offset = this.size * WORDS;
+        if (offset == this.frames.length) {
+            if (this.frames.length > Integer.MAX_VALUE / 2 - WORDS) {
+                throw new IllegalStateException("History full");
+            }
+            this.frames = Arrays.copyOf(this.frames, this.frames.length << 1);
+        }
+        for (int word = 0; word < WORDS - 1; word++) {
+            long value = 0L;
+            for (int i = 0; i < SQUARES_PER_WORD; i++) {
+                final int index = word * SQUARES_PER_WORD + i;
+                final Square square = snapshot.get(index % snapshot.size, index / snapshot.size);
+                value |= (long) (square == null ? 0 : square.kind + 1) << (i << 2);
+            }
+            this.frames[offset + word] = value;
+        }
+        this.frames[offset + WORDS - 1] = snapshot.highlights();
+        this.cursor = this.size++;
+    }
+
+    /**
+     * Moves the cursor to the previous frame and returns it or {@code null} if
+     * there is none.
+     */
+    public Snapshot undo() {
+        return this.cursor > 0 ? this.seek(this.cursor - 1) : null;
+    }
+
+    /**
+     * Moves the cursor to the next frame and returns it or {@code null} if there
+     * is none.
+     */
+    public Snapshot redo() {
+        return this.cursor + 1 < this.size ? this.seek(this.cursor + 1) : null;
+    }
+
+    /**
+     * Moves the cursor to frame {@code index} and returns it.
+     *
+     * @throws IndexOutOfBoundsException thrown when there is no such frame.
+     */
+    public Snapshot seek(final int index) {
+        final Snapshot result = this.get(index);
+        this.cursor = index;
+        return result;
+    }
+
+    /**
+     * Returns frame {@code index} without moving the cursor.
+     *
+     * @throws IndexOutOfBoundsException thrown when there is no such frame.
+     */
+    public Snapshot get(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("index < 0 || index >= " + this.size);
+        }
+        final int offset = index * WORDS;
+        final long[] bitboards = new long[Square.KINDS + 1];
+        for (int word = 0; word < WORDS - 1; word++) {
+            final long value = this.frames[offset + word];
+            for (int i = 0; i < SQUARES_PER_WORD; i++) {
+                final int kind = (int) (value >>> (i << 2) & 0xF) - 1;
+                if (kind >= 0) {
+                    bitboards[kind] |= 1L << (word * SQUARES_PER_WORD + i);
+                }
+            }
+        }
+        bitboards[Square.KINDS] = this.frames[offset + WORDS - 1];
+        return Snapshot.of(bitboards);
+    }
+
+    /**
+     * Returns the index of the frame under the cursor or {@code -1} if the history
+     * is empty.
+     */
+    public int cursor() {
+        return this.cursor;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns {@code true} if the cursor is on the most recent frame or the
+     * history is empty.
+     */
+    public boolean isLatest() {
+        return this.cursor == this.size - 1;
+    }
+}
@@ -1,83 +1,289 @@
 package chess.internal;
 
 import java.io.InputStream;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * An {@code InputStream} fed by {@link #insert(byte[], int, int)} and backed by a
+ * bounded ring buffer of primitive bytes.
+ * <p>
+ * Writers block while the buffer is full, which throttles them to the pace of
+ * the readers; {@link #offer(byte[], int, int)}, {@link #offerAll(byte[], int,
+ * int)} and {@link #poll(byte[], int, int)} provide the non-blocking
+ * counterparts for writing and reading.
+ * <p>
+ * Once {@link #finish()} was called, readers receive the bytes still buffered
+ * followed by the end of the stream.
+ */
 public class InputOutputStream extends InputStream {
 
-    private final BlockingDeque<Byte> queue;
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final byte[] buffer;
+
+    /**
+     * The index of the next byte to read.
+     */
+    private int head;
+
+    /**
+     * The number of bytes available to read.
+     */
+    private int count;
+
+    /**
+     * Whether {@link #finish()} was called.
+     */
+    private boolean finished;
+
+    private final ReentrantLock lock;
+
+    private final Condition notEmpty;
+
+    private final Condition notFull;
 
     public InputOutputStream() {
-        this.queue = new LinkedBlockingDeque<Byte>();
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new instance of the underlying {@code class}.
+     *
+     * @param capacity the maximum number of bytes buffered at any time.
+     * @throws IllegalArgumentException thrown when {@code capacity} is not positive.
+     */
+    public InputOutputStream(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        this.buffer = new byte[capacity];
+        this.lock = new ReentrantLock();
+        this.notEmpty = this.lock.newCondition();
+        this.notFull = this.lock.newCondition();
     }
 
     public void insert(final byte[] buffer) {
-        for (final byte b : buffer) {
-            this.queue.add(b);
+        this.insert(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Appends {@code length} bytes of {@code buffer} starting at {@code offset},
+     * waiting for readers to make room whenever the buffer is full.
+     * <p>
+     * The method returns early if the calling thread is interrupted, in which case
+     * its interrupt status is restored, or if the stream is {@link #finish()
+     * finished}.
+     *
+     * @return the number of bytes appended.
+     */
+    public int insert(final byte[] buffer,
+                      final int offset,
+                      final int length) {
+        checkBounds(buffer, offset, length);
+        int written = 0;
+        this.lock.lock();
+        try {
+            while (written < length && !this.finished) {
+                while (this.count == this.buffer.length && !this.finished) {
+                    this.notFull.await();
+                }
+                written += this.write(buffer, offset + written, length - written);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.lock.unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Appends as many of the {@code length} bytes of {@code buffer} starting at
+     * {@code offset} as fit without waiting.
+     *
+     * @return the number of bytes appended, which may be zero.
+     */
+    public int offer(final byte[] buffer,
+                     final int offset,
+                     final int length) {
+        checkBounds(buffer, offset, length);
+        this.lock.lock();
+        try {
+            return this.write(buffer, offset, length);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the {@code length} bytes of {@code buffer} starting at {@code
+     * offset} if all of them fit without waiting, and nothing otherwise, so that
+     * readers never see a part of them.
+     *
+     * @return {@code true} if the bytes were appended.
+     */
+    public boolean offerAll(final byte[] buffer,
+                            final int offset,
+                            final int length) {
+        checkBounds(buffer, offset, length);
+        this.lock.lock();
+        try {
+            if (this.finished || this.buffer.length - this.count < length) {
+                return false;
+            }
+            this.write(buffer, offset, length);
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to {@code length} bytes into {@code buffer} starting at {@code
+     * offset} without waiting.
+     *
+     * @return the number of bytes read, which may be zero.
+     */
+    public int poll(final byte[] buffer,
+                    final int offset,
+                    final int length) {
+        checkBounds(buffer, offset, length);
+        this.lock.lock();
+        try {
+            return this.drain(buffer, offset, length);
+        } finally {
+            this.lock.unlock();
         }
     }
 
-    public void insert(final byte[] buffer,
-                                   final int offset,
-                                   final int length) {
-        for (int i = 0; i < length; ++i) {
-            final byte b = buffer[offset + i];
-            this.queue.add(b);
+    /**
+     * Marks the end of the stream: readers receive the bytes buffered so far,
+     * then {@code -1}; bytes appended from now on are discarded.
+     */
+    public void finish() {
+        this.lock.lock();
+        try {
+            this.finished = true;
+            this.notEmpty.signalAll();
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
         }
     }
 
+    public int capacity() {
+        return this.buffer.length;
+    }
+
     @Override
-    public synchronized int available() {
-        return this.queue.size();
+    public int available() {
+        this.lock.lock();
+        try {
+            return this.count;
+        } finally {
+            this.lock.unlock();
+        }
     }
 
     @Override
     public int read() {
+        this.lock.lock();
         try {
-            return (int) this.queue.take();
+            while (this.count == 0) {
+                if (this.finished) {
+                    return -1;
+                }
+                this.notEmpty.await();
+            }
+            final int result = this.buffer[this.head] & 0xFF;
+            this.head = (this.head + 1) % this.buffer.length;
+            this.count--;
+            this.notFull.signalAll();
+            return result;
         } catch (final InterruptedException ex) {
             return -1;
+        } finally {
+            this.lock.unlock();
         }
     }
 
+    /**
+     * Waits until at least one byte is available and reads as many bytes as are
+     * available, up to {@code length}, or returns {@code -1} at the end of the
+     * stream.
+     */
     @Override
     public int read(final byte[] buffer,
                     final int offset,
                     final int length) {
-        if (buffer.length == 0 || length == 0) {
+        checkBounds(buffer, offset, length);
+        if (length == 0) {
             return 0;
-        } else if (offset < 0 || length < 0 || buffer.length - offset < length) {
-            throw new IllegalArgumentException();
         }
-        final int available = this.available();
-        if (available == 0) {
-            buffer[0] = (byte) this.read();
-            return 1;
-        } else {
-            final int minimum = Math.min(available, length);
-            for (int i = 0; i < minimum; ++i) {
-                buffer[i] = (byte) this.read();
+        this.lock.lock();
+        try {
+            while (this.count == 0) {
+                if (this.finished) {
+                    return -1;
+                }
+                this.notEmpty.await();
             }
-            return minimum;
+            return this.drain(buffer, offset, length);
+        } catch (final InterruptedException ex) {
+            return -1;
+        } finally {
+            this.lock.unlock();
         }
     }
 
     @Override
     public int read(final byte[] buffer) {
-        if (buffer.length == 0) {
-            return 0;
+        return this.read(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Copies as many bytes as fit into the ring buffer; the caller must hold
+     * {@link #lock}.
+     */
+    private int write(final byte[] source, final int offset, final int length) {
+        final int capacity = this.buffer.length;
+        final int total = this.finished ? 0 : Math.min(length, capacity - this.count);
+        if (total > 0) {
+            final int tail = (this.head + this.count) % capacity;
+            final int first = Math.min(total, capacity - tail);
+            System.arraycopy(source, offset, this.buffer, tail, first);
+            System.arraycopy(source, offset + first, this.buffer, 0, total - first);
+            this.count += total;
+            this.notEmpty.signalAll();
         }
-        final int available = this.available();
-        if (available == 0) {
-            buffer[0] = (byte) this.read();
-            return 1;
-        } else {
-            final int minimum = Math.min(available, buffer.length);
-            for (int i = 0; i < minimum; ++i) {
-                buffer[i] = (byte) this.read();
-            }
-            return minimum;
+        return total;
+    }
+
+    /**
+     * Copies as many bytes as are available out of the ring buffer; the caller
+     * must hold {@link #lock}.
+     */
+    private int drain(final byte[] target, final int offset, final int length) {
+        final int capacity = this.buffer.length;
+        final int total = Math.min(length, this.count);
+        if (total > 0) {
+            final int first = Math.min(total, capacity - this.head);
+            System.arraycopy(this.buffer, this.head, target, offset, first);
+            System.arraycopy(this.buffer, 0, target, offset + first, total - first);
+            this.head = (this.head + total) % capacity;
+            this.count -= total;
+            this.notFull.signalAll();
+        }
+        return total;
+    }
+
+    private static void checkBounds(final byte[] buffer, final int offset, final int length) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer == null");
+        } else if (offset < 0 || length < 0 || buffer.length - offset < length) {
+            throw new IllegalArgumentException("offset < 0 || length < 0"
+                    + " || buffer.length - offset < length");
         }
     }
 }
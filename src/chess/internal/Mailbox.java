@@ -0,0 +1,183 @@
+package chess.internal;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A mailbox handing values from any number of producers to the event dispatch
+ * thread without ever blocking the producers.
+ * <p>
+ * At most one drain task is pending on the event dispatch thread at any time,
+ * no matter how many values are submitted in the meantime. Once {@link
+ * #close() closed}, values are dropped instead of delivered.
+ *
+ * @param <V> the type of the values to deliver.
+ */
+public class Mailbox<V> {
+
+    /**
+     * Describes what happens to values superseded before they were delivered.
+     */
+    public enum Policy {
+
+        /**
+         * Only the most recent value is delivered; superseded values are dropped.
+         */
+        LATEST,
+
+        /**
+         * Every value is delivered in the order of submission.
+         */
+        ALL
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final CompletableFuture<Boolean> future;
+
+        private Entry(final V value) {
+            this.value = value;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+    private final Window owner;
+
+    private final Task<V> sink;
+
+    private final AtomicReference<Entry<V>> latest;
+
+    private final Queue<Entry<V>> all;
+
+    private final AtomicBoolean scheduled;
+
+    private volatile Policy policy;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new instance of the underlying {@code class}.
+     *
+     * @param owner the window whose event dispatch thread delivers the values.
+     * @param sink the task receiving each delivered value on the event dispatch thread.
+     */
+    public Mailbox(final Window owner, final Task<V> sink) {
+        assert owner != null : "owner == null";
+        assert sink != null : "sink == null";
+        this.owner = owner;
+        this.sink = sink;
+        this.latest = new AtomicReference<>();
+        this.all = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+        this.policy = Policy.LATEST;
+    }
+
+    public Policy getPolicy() {
+        return this.policy;
+    }
+
+    public void setPolicy(final Policy policy) {
+        assert policy != null : "policy == null";
+        this.policy = policy;
+    }
+
+    /**
+     * Submits {@code value} for delivery on the event dispatch thread and returns
+     * immediately.
+     * <p>
+     * The future returned completes with {@code true} once {@code value} has been
+     * delivered or with {@code false} if it was dropped in favour of a more
+     * recent value.
+     *
+     * @param value the value to deliver.
+     */
+    public CompletableFuture<Boolean> submit(final V value) {
+        assert value != null : "value == null";
+        if (this.closed) {
+            return CompletableFuture.completedFuture(Boolean.FALSE);
+        }
+        final Entry<V> entry = new Entry<>(value);
+        if (this.policy == Policy.ALL) {
+            this.all.add(entry);
+        } else {
+            final Entry<V> previous = this.latest.getAndSet(entry);
+            if (previous != null) {
+                previous.future.complete(Boolean.FALSE);
+                Metrics.dropped();
+            }
+        }
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.owner.getScheduler().submit(this::drain);
+        }
+        return entry.future;
+    }
+
+    /**
+     * Delivers the values pending when the drain starts to {@link #sink}.
+     * <p>
+     * Values kept under {@link Policy#ALL} go first so that the most recent value
+     * is delivered last. Values submitted during the drain are left to the next
+     * one, so that a fast producer cannot keep the event dispatch thread from
+     * handling other events.
+     */
+    private void drain() {
+        // values submitted from now on schedule another drain
+        this.scheduled.set(false);
+        if (this.closed) {
+            // values may have been submitted concurrently with close()
+            this.clear();
+            return;
+        }
+        for (int count = this.all.size(); count > 0; count--) {
+            final Entry<V> entry = this.all.poll();
+            if (entry == null) {
+                break;
+            }
+            this.deliver(entry);
+        }
+        if (!this.all.isEmpty()) {
+            // the most recent value waits for the values submitted before it
+            if (this.scheduled.compareAndSet(false, true)) {
+                this.owner.getScheduler().submit(this::drain);
+            }
+            return;
+        }
+        final Entry<V> entry = this.latest.getAndSet(null);
+        if (entry != null) {
+            this.deliver(entry);
+        }
+    }
+
+    /**
+     * Drops every pending value and every value submitted from now on, completing
+     * their futures with {@code false}; may be called from any thread.
+     */
+    public void close() {
+        this.closed = true;
+        this.clear();
+    }
+
+    private void clear() {
+        for (Entry<V> entry = this.all.poll(); entry != null; entry = this.all.poll()) {
+            entry.future.complete(Boolean.FALSE);
+        }
+        final Entry<V> entry = this.latest.getAndSet(null);
+        if (entry != null) {
+            entry.future.complete(Boolean.FALSE);
+        }
+    }
+
+    private void deliver(final Entry<V> entry) {
+        try {
+            this.sink.run(entry.value);
+            entry.future.complete(Boolean.TRUE);
+        } catch (final RuntimeException ex) {
+            entry.future.completeExceptionally(ex);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package chess.internal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The measurements taken along the way from showing a position to painting it.
+ * <p>
+ * Every measurement is recorded in a {@link Histogram} or counter shared by all
+ * boards, which is cheap enough to stay enabled at all times. The values are
+ * available through {@link #snapshot()} and, once {@link MetricsBean#register()}
+ * was called, through JMX. Nothing here depends on JMX, so that recording the
+ * first measurement does not wait for the platform MBean server to start.
+ * Instances hold the values at a single point in time.
+ */
+public final class Metrics {
+
+    /**
+     * The time spent publishing positions to a {@link Board}, whether by {@link
+     * Board#apply(String[][])} or {@link Board#publish(Snapshot)}; parsing is
+     * not included.
+     */
+    public static final Histogram APPLY = new Histogram();
+
+    /**
+     * The time tasks posted to the event dispatch thread waited before they ran.
+     */
+    public static final Histogram QUEUE_WAIT = new Histogram();
+
+    /**
+     * The time spent in {@link Renderer#paintComponent(java.awt.Graphics)}.
+     */
+    public static final Histogram PAINT = new Histogram();
+
+    /**
+     * The number of positions dropped in favour of a more recent one before
+     * they were delivered to a board.
+     */
+    private static final LongAdder DROPPED = new LongAdder();
+
+    /**
+     * The number of positions published before the previous one was painted
+     * completely, hence painted together with it.
+     */
+    private static final LongAdder COALESCED = new LongAdder();
+
+    /**
+     * Counts a position that was dropped before delivery.
+     */
+    public static void dropped() {
+        DROPPED.increment();
+    }
+
+    /**
+     * Counts a position that was coalesced with the next one.
+     */
+    public static void coalesced() {
+        COALESCED.increment();
+    }
+
+    /**
+     * Returns the number of positions dropped so far.
+     */
+    static long droppedFrames() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * Returns the number of positions coalesced so far.
+     */
+    static long coalescedFrames() {
+        return COALESCED.sum();
+    }
+
+    /**
+     * Returns the values recorded so far.
+     */
+    public static Metrics snapshot() {
+        return new Metrics(APPLY.summary(), QUEUE_WAIT.summary(), PAINT.summary(),
+                DROPPED.sum(), COALESCED.sum());
+    }
+
+    /**
+     * Discards every value recorded so far.
+     */
+    public static void clear() {
+        APPLY.reset();
+        QUEUE_WAIT.reset();
+        PAINT.reset();
+        DROPPED.reset();
+        COALESCED.reset();
+    }
+
+    private final Histogram.Summary apply;
+
+    private final Histogram.Summary queueWait;
+
+    private final Histogram.Summary paint;
+
+    private final long droppedFrames;
+
+    private final long coalescedFrames;
+
+    private Metrics(final Histogram.Summary apply,
+                    final Histogram.Summary queueWait,
+                    final Histogram.Summary paint,
+                    final long droppedFrames,
+                    final long coalescedFrames) {
+        this.apply = apply;
+        this.queueWait = queueWait;
+        this.paint = paint;
+        this.droppedFrames = droppedFrames;
+        this.coalescedFrames = coalescedFrames;
+    }
+
+    /**
+     * @see MetricsMXBean#getApply()
+     */
+    public Histogram.Summary getApply() {
+        return this.apply;
+    }
+
+    /**
+     * @see MetricsMXBean#getQueueWait()
+     */
+    public Histogram.Summary getQueueWait() {
+        return this.queueWait;
+    }
+
+    /**
+     * @see MetricsMXBean#getPaint()
+     */
+    public Histogram.Summary getPaint() {
+        return this.paint;
+    }
+
+    public long getDroppedFrames() {
+        return this.droppedFrames;
+    }
+
+    public long getCoalescedFrames() {
+        return this.coalescedFrames;
+    }
+
+    @Override
+    public String toString() {
+        return "apply: " + this.apply
+                + "\nqueue wait: " + this.queueWait
+                + "\npaint: " + this.paint
+                + "\ndropped frames: " + this.droppedFrames
+                + "\ncoalesced frames: " + this.coalescedFrames;
+    }
+}
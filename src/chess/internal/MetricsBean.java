@@ -0,0 +1,81 @@
+package chess.internal;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exposes {@link Metrics} through JMX.
+ * <p>
+ * Starting the platform MBean server takes several hundred milliseconds, so the
+ * bean is only registered on request, and then on a daemon thread of its own,
+ * never on the way from showing a position to painting it.
+ */
+public final class MetricsBean implements MetricsMXBean {
+
+    /**
+     * The name the metrics are registered under with the platform MBean server.
+     */
+    public static final String NAME = "chess:type=Metrics";
+
+    private static final AtomicBoolean REGISTERED = new AtomicBoolean();
+
+    /**
+     * Registers the bean with the platform MBean server in the background
+     * unless that happened before.
+     */
+    public static void register() {
+        if (REGISTERED.compareAndSet(false, true)) {
+            final Thread thread = new Thread(MetricsBean::registerNow, "MetricsBean");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    private static void registerNow() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsBean(), name);
+            }
+        } catch (final JMException | SecurityException ex) {
+            System.err.println("Unable to register \"" + NAME + "\"");
+        }
+    }
+
+    private MetricsBean() {
+    }
+
+    @Override
+    public Histogram.Summary getApply() {
+        return Metrics.APPLY.summary();
+    }
+
+    @Override
+    public Histogram.Summary getQueueWait() {
+        return Metrics.QUEUE_WAIT.summary();
+    }
+
+    @Override
+    public Histogram.Summary getPaint() {
+        return Metrics.PAINT.summary();
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return Metrics.droppedFrames();
+    }
+
+    @Override
+    public long getCoalescedFrames() {
+        return Metrics.coalescedFrames();
+    }
+
+    @Override
+    public void reset() {
+        Metrics.clear();
+    }
+}
@@ -0,0 +1,32 @@
+package chess.internal;
+
+/**
+ * The management interface of {@link Metrics}, registered as {@link
+ * MetricsBean#NAME}; all durations in nanoseconds.
+ */
+public interface MetricsMXBean {
+
+    /**
+     * Returns the time spent publishing positions to a {@link Board}.
+     */
+    Histogram.Summary getApply();
+
+    /**
+     * Returns the time tasks waited for the event dispatch thread.
+     */
+    Histogram.Summary getQueueWait();
+
+    /**
+     * Returns the time spent in {@link Renderer#paintComponent(java.awt.Graphics)}.
+     */
+    Histogram.Summary getPaint();
+
+    long getDroppedFrames();
+
+    long getCoalescedFrames();
+
+    /**
+     * Discards every value recorded so far.
+     */
+    void reset();
+}
@@ -0,0 +1,107 @@
+package chess.internal;
+
+/**
+ * A move entered by the user, either typed or clicked, from one square to
+ * another.
+ * <p>
+ * Squares are given as {@code (x, y)} like the indices of a {@code String[][]}
+ * board, i.e. {@code (0, 0)} is a8 and {@code (7, 7)} is h1.
+ */
+public final class MoveCommand {
+
+    /**
+     * Where a command originates from.
+     */
+    public enum Source {
+
+        KEYBOARD,
+
+        MOUSE
+    }
+
+    /**
+     * Parses {@code str} as a move, accepting squares either in algebraic
+     * notation, e.g. {@code e2e4}, {@code e2-e4} or {@code e2 e4}, or as
+     * coordinate pairs as labelled on the board, e.g. {@code 4,6 4,4}.
+     *
+     * @param str the text to parse.
+     * @param source where {@code str} originates from.
+     * @return the move or {@code null} if {@code str} denotes none.
+     */
+    public static MoveCommand parse(final String str, final Source source) {
+        assert str != null : "str == null";
+        assert source != null : "source == null";
+        // at most two squares of two characters each, apart from separators
+        final char[] chars = new char[4];
+        int count = 0;
+        for (int i = 0; i < str.length(); i++) {
+            final char ch = Character.toLowerCase(str.charAt(i));
+            if (ch == ' ' || ch == ',' || ch == '-' || ch == 'x' || ch == ':' || ch == '\t'
+                    || ch == '\n' || ch == '\r') {
+                continue;
+            } else if (count == chars.length) {
+                return null;
+            }
+            chars[count++] = ch;
+        }
+        if (count < chars.length) {
+            return null;
+        }
+        final int[] squares = new int[4];
+        for (int i = 0; i < chars.length; i += 2) {
+            final char file = chars[i];
+            final char second = chars[i + 1];
+            if (file >= 'a' && file < 'a' + Board.SIZE && second >= '1' && second < '1' + Board.SIZE) {
+                squares[i] = file - 'a';
+                squares[i + 1] = Board.SIZE - (second - '0');
+            } else if (file >= '0' && file < '0' + Board.SIZE && second >= '0' && second < '0' + Board.SIZE) {
+                squares[i] = file - '0';
+                squares[i + 1] = second - '0';
+            } else {
+                return null;
+            }
+        }
+        if (squares[0] == squares[2] && squares[1] == squares[3]) {
+            return null;
+        }
+        return new MoveCommand(squares[0], squares[1], squares[2], squares[3], source);
+    }
+
+    public final int fromX;
+
+    public final int fromY;
+
+    public final int toX;
+
+    public final int toY;
+
+    public final Source source;
+
+    public MoveCommand(final int fromX,
+                       final int fromY,
+                       final int toX,
+                       final int toY,
+                       final Source source) {
+        assert fromX >= 0 && fromX < Board.SIZE : "fromX < 0 || fromX >= Board.SIZE";
+        assert fromY >= 0 && fromY < Board.SIZE : "fromY < 0 || fromY >= Board.SIZE";
+        assert toX >= 0 && toX < Board.SIZE : "toX < 0 || toX >= Board.SIZE";
+        assert toY >= 0 && toY < Board.SIZE : "toY < 0 || toY >= Board.SIZE";
+        assert source != null : "source == null";
+        this.fromX = fromX;
+        this.fromY = fromY;
+        this.toX = toX;
+        this.toY = toY;
+        this.source = source;
+    }
+
+    /**
+     * Returns the move in algebraic notation, e.g. {@code e2e4}.
+     */
+    @Override
+    public String toString() {
+        return new String(new char[] {
+                (char) ('a' + this.fromX), (char) ('0' + Board.SIZE - this.fromY),
+                (char) ('a' + this.toX), (char) ('0' + Board.SIZE - this.toY)
+        });
+    }
+}
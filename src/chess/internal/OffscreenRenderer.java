@@ -0,0 +1,141 @@
+package chess.internal;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Renders positions into images without any window or the event dispatch
+ * thread, hence works with {@code java.awt.headless=true}.
+ * <p>
+ * All methods may be called from any number of threads in parallel; each thread
+ * scales icons into a cache of its own.
+ */
+public final class OffscreenRenderer {
+
+    /**
+     * The compression quality passed to writers supporting it, trading file size
+     * for encoding speed.
+     */
+    private static final float COMPRESSION_QUALITY = 0.75F;
+
+    private static final ThreadLocal<SpriteCache> SPRITES = ThreadLocal.withInitial(SpriteCache::new);
+
+    /**
+     * Renders {@code snapshot} into a new image of {@code width} by {@code height}
+     * pixels.
+     *
+     * @param snapshot the position to render.
+     * @param width the width of the result in pixels.
+     * @param height the height of the result in pixels.
+     */
+    public static BufferedImage render(final Snapshot snapshot, final int width, final int height) {
+        return render(snapshot, new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * Renders {@code snapshot} into {@code image}, which allows reusing a single
+     * image for many frames.
+     *
+     * @param snapshot the position to render.
+     * @param image the image to render into.
+     * @return {@code image}.
+     */
+    public static BufferedImage render(final Snapshot snapshot, final BufferedImage image) {
+        assert snapshot != null : "snapshot == null";
+        assert image != null : "image == null";
+        final Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setBackground(Renderer.BACKGROUND);
+            graphics.clearRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.setFont(Renderer.FONT);
+            Renderer.paint(graphics, snapshot, image.getWidth(), image.getHeight(), SPRITES.get(), null);
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Renders the current position of {@code board} into a new image of {@code
+     * width} by {@code height} pixels.
+     */
+    public static BufferedImage render(final Board board, final int width, final int height) {
+        assert board != null : "board == null";
+        return render(board.snapshot(), width, height);
+    }
+
+    /**
+     * Encodes {@code image} as PNG and writes it to {@code out}.
+     * <p>
+     * The image is buffered in memory rather than in a temporary file, whatever
+     * {@link ImageIO#getUseCache()} says.
+     *
+     * @param image the image to encode.
+     * @param out the stream to write to, which is left open.
+     * @throws IOException thrown when writing failed for any reason.
+     */
+    public static void write(final BufferedImage image, final OutputStream out) throws IOException {
+        assert image != null : "image == null";
+        assert out != null : "out == null";
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer for \"png\" available");
+        }
+        final ImageWriter writer = writers.next();
+        try (final ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                // favour throughput over file size
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(COMPRESSION_QUALITY);
+            }
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Renders {@code snapshot} and writes it as PNG to {@code out}.
+     *
+     * @throws IOException thrown when writing failed for any reason.
+     */
+    public static void write(final Snapshot snapshot,
+                             final int width,
+                             final int height,
+                             final OutputStream out) throws IOException {
+        write(render(snapshot, width, height), out);
+    }
+
+    /**
+     * Renders {@code snapshot} and writes it as PNG to {@code path}, replacing any
+     * existing file.
+     *
+     * @throws IOException thrown when writing failed for any reason.
+     */
+    public static void write(final Snapshot snapshot,
+                             final int width,
+                             final int height,
+                             final Path path) throws IOException {
+        assert path != null : "path == null";
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            write(snapshot, width, height, out);
+        }
+    }
+
+    private OffscreenRenderer() {
+    }
+}
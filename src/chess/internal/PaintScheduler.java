@@ -0,0 +1,65 @@
+package chess.internal;
+
+import java.awt.EventQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the tasks submitted by any number of boards in batches on the event
+ * dispatch thread.
+ * <p>
+ * Each batch costs a single event no matter how many boards submitted in the
+ * meantime, and the repaints the tasks request are coalesced into a single
+ * paint pass of the window by Swing. The batch is posted to the event queue
+ * when the first of its tasks is submitted, so that it runs in order with
+ * anything else posted to the queue afterwards, e.g. by {@link
+ * Window#postSync(Task)}.
+ */
+public final class PaintScheduler {
+
+    private final Queue<Runnable> tasks;
+
+    private final AtomicBoolean scheduled;
+
+    public PaintScheduler() {
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+    }
+
+    /**
+     * Submits {@code task} to run with the next batch; may be called from any
+     * thread and never blocks.
+     */
+    public void submit(final Runnable task) {
+        assert task != null : "task == null";
+        final long start = System.nanoTime();
+        this.tasks.add(() -> {
+            Metrics.QUEUE_WAIT.recordSince(start);
+            task.run();
+        });
+        if (this.scheduled.compareAndSet(false, true)) {
+            EventQueue.invokeLater(this::run);
+        }
+    }
+
+    /**
+     * Runs the tasks submitted before the batch started.
+     */
+    private void run() {
+        // tasks submitted from now on schedule another batch
+        this.scheduled.set(false);
+        for (int count = this.tasks.size(); count > 0; count--) {
+            final Runnable task = this.tasks.poll();
+            if (task == null) {
+                break;
+            }
+            try {
+                task.run();
+            } catch (final RuntimeException ex) {
+                System.err.println("Unable to run \"" + task + "\"");
+                ex.printStackTrace(System.err);
+            }
+        }
+    }
+}
@@ -2,11 +2,29 @@ package chess.internal;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class Pipeline {
 
+    /**
+     * The name of the system property naming a file to read from in place of the
+     * console, e.g. to replay a recorded session.
+     */
+    public static final String SOURCE_PROPERTY = "chess.stdin";
+
+    /**
+     * The number of bytes forwarded at once.
+     */
+    private static final int CHUNK = 1 << 16;
+
     private static final InputStream STDIN;
 
     private static final InputOutputStream INTERMEDIARY;
@@ -16,12 +34,18 @@ public class Pipeline {
     static {
         STDIN = System.in;
         INTERMEDIARY = new InputOutputStream();
+        final String source = System.getProperty(SOURCE_PROPERTY);
         HOOK = new Thread(() -> {
             try {
-                final byte[] buf = new byte[1];
-                for (int i = STDIN.read(); i != -1; i = STDIN.read()) {
-                    buf[0] = (byte) i;
-                    INTERMEDIARY.insert(buf);
+                if (source != null) {
+                    try {
+                        feed(Paths.get(source));
+                    } finally {
+                        // lets the program see the end of the replay
+                        INTERMEDIARY.finish();
+                    }
+                } else {
+                    feed(STDIN);
                 }
             } catch (final IOException cause) {
                 throw new UncheckedIOException(cause);
@@ -38,7 +62,96 @@ public class Pipeline {
     public static void send(final String str) {
         assert str != null : "str == null";
         final byte[] buf = str.getBytes(StandardCharsets.UTF_8);
-        INTERMEDIARY.insert(buf);
+        // never block the sender, which usually is the event dispatch thread, and
+        // never pass on part of a line, which the next one would run into
+        if (!INTERMEDIARY.offerAll(buf, 0, buf.length)) {
+            System.err.println("Die Eingabe \"" + str.trim() + "\" wurde verworfen, da sie nicht mehr"
+                    + " in den Puffer passte.");
+        }
+    }
+
+    /**
+     * Forwards everything read from {@code in} to {@code System.in} in large
+     * chunks until the end of {@code in} is reached.
+     * <p>
+     * The calling thread blocks while {@code System.in} is not consumed fast
+     * enough; {@code in} is left open.
+     *
+     * @param in the stream to read from.
+     * @return the number of bytes forwarded.
+     * @throws InterruptedIOException thrown when the calling thread was
+     *         interrupted while waiting, before everything read was forwarded.
+     * @throws IOException thrown when reading failed for any reason.
+     */
+    public static long feed(final InputStream in) throws IOException {
+        assert in != null : "in == null";
+        final byte[] buf = new byte[CHUNK];
+        long total = 0L;
+        for (int n = in.read(buf); n != -1; n = in.read(buf)) {
+            total = forward(buf, 0, n, total);
+        }
+        return total;
+    }
+
+    /**
+     * Forwards everything read from {@code channel} to {@code System.in} in large
+     * chunks until the end of {@code channel} is reached.
+     * <p>
+     * The calling thread blocks while {@code System.in} is not consumed fast
+     * enough; {@code channel} is left open.
+     *
+     * @param channel the channel to read from, e.g. a file or a pipe.
+     * @return the number of bytes forwarded.
+     * @throws InterruptedIOException thrown when the calling thread was
+     *         interrupted while waiting, before everything read was forwarded.
+     * @throws IOException thrown when reading failed for any reason.
+     */
+    public static long feed(final ReadableByteChannel channel) throws IOException {
+        assert channel != null : "channel == null";
+        final ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+        long total = 0L;
+        while (channel.read(buf) != -1) {
+            buf.flip();
+            total = forward(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining(), total);
+            buf.clear();
+        }
+        return total;
+    }
+
+    /**
+     * Forwards the contents of the file at {@code path} to {@code System.in}.
+     *
+     * @param path the file to read from.
+     * @return the number of bytes forwarded.
+     * @throws IOException thrown when reading failed for any reason.
+     * @see #feed(ReadableByteChannel)
+     */
+    public static long feed(final Path path) throws IOException {
+        assert path != null : "path == null";
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return feed(channel);
+        }
+    }
+
+    /**
+     * Inserts {@code length} bytes of {@code buf} into {@code System.in} and
+     * returns {@code total} plus their number.
+     *
+     * @throws InterruptedIOException thrown when fewer bytes were inserted,
+     *         which would otherwise be lost silently.
+     */
+    private static long forward(final byte[] buf,
+                                final int offset,
+                                final int length,
+                                final long total) throws InterruptedIOException {
+        final int written = INTERMEDIARY.insert(buf, offset, length);
+        if (written < length) {
+            final InterruptedIOException ex = new InterruptedIOException("Interrupted after forwarding "
+                    + (total + written) + " bytes");
+            ex.bytesTransferred = (int) Math.min(total + written, Integer.MAX_VALUE);
+            throw ex;
+        }
+        return total + length;
     }
 
     private Pipeline() {
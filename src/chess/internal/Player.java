@@ -0,0 +1,166 @@
+package chess.internal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Replays a log written by {@link Recorder}.
+ * <p>
+ * The log is memory-mapped; seeking to a frame decodes the preceding keyframe
+ * found via the index and applies at most one interval of deltas, regardless of
+ * the length of the log. Instances are not thread-safe.
+ */
+public final class Player {
+
+    private final MappedByteBuffer buffer;
+
+    private final int interval;
+
+    /**
+     * The offsets of the keyframes, indexed by frame number divided by {@link
+     * #interval}.
+     */
+    private final long[] keyframes;
+
+    private final long frames;
+
+    /**
+     * The compact descriptors of the current frame.
+     */
+    private final byte[] codes;
+
+    private long frame;
+
+    /**
+     * The offset of the frame following the current one.
+     */
+    private int offset;
+
+    /**
+     * Opens the log at {@code path}.
+     *
+     * @throws IOException thrown when {@code path} cannot be read or is no log.
+     */
+    public Player(final Path path) throws IOException {
+        assert path != null : "path == null";
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Log too large: " + path);
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        }
+        if (this.buffer.limit() < Recorder.HEADER
+                || this.buffer.getInt(0) != Recorder.MAGIC
+                || this.buffer.getInt(4) != Recorder.VERSION
+                || this.buffer.getInt(8) < 1) {
+            throw new IOException("Not a log: " + path);
+        }
+        this.interval = this.buffer.getInt(8);
+        final int end = this.buffer.limit();
+        if (end >= Recorder.HEADER + 16 && this.buffer.getInt(end - 4) == Recorder.INDEX_MAGIC) {
+            final int count = this.buffer.getInt(end - 8);
+            this.frames = this.buffer.getLong(end - 16);
+            this.keyframes = new long[count];
+            for (int i = 0; i < count; i++) {
+                this.keyframes[i] = this.buffer.getLong(end - 16 - 8 * (count - i));
+            }
+        } else {
+            // the recorder was not closed, hence the frames are counted one by one
+            long[] keyframes = new long[64];
+            long frames = 0L;
+            int offset = Recorder.HEADER;
+            while (offset < end) {
+                final int tag = this.buffer.get(offset) & 0xFF;
+                final int length = tag == Recorder.KEYFRAME ? 1 + Board.SIZE * Board.SIZE : 1 + 2 * tag;
+                if (offset + length > end || (frames % this.interval == 0L) != (tag == Recorder.KEYFRAME)) {
+                    break;
+                }
+                if (tag == Recorder.KEYFRAME) {
+                    final int index = (int) (frames / this.interval);
+                    if (index == keyframes.length) {
+                        keyframes = Arrays.copyOf(keyframes, index << 1);
+                    }
+                    keyframes[index] = offset;
+                }
+                offset += length;
+                frames++;
+            }
+            this.frames = frames;
+            this.keyframes = Arrays.copyOf(keyframes, (int) ((frames + this.interval - 1) / this.interval));
+        }
+        this.codes = new byte[Board.SIZE * Board.SIZE];
+        this.frame = -1L;
+        this.offset = Recorder.HEADER;
+    }
+
+    /**
+     * Returns the number of frames in the log.
+     */
+    public long frames() {
+        return this.frames;
+    }
+
+    /**
+     * Returns the number of the current frame or {@code -1} before the first one.
+     */
+    public long frame() {
+        return this.frame;
+    }
+
+    /**
+     * Makes frame {@code frame} the current one and returns it.
+     *
+     * @throws IllegalArgumentException thrown when there is no such frame.
+     */
+    public Snapshot seek(final long frame) {
+        if (frame < 0L || frame >= this.frames) {
+            throw new IllegalArgumentException("frame < 0 || frame >= " + this.frames);
+        }
+        if (frame < this.frame || frame / this.interval != this.frame / this.interval || this.frame < 0L) {
+            this.frame = frame / this.interval * this.interval - 1L;
+            this.offset = (int) this.keyframes[(int) (frame / this.interval)];
+        }
+        while (this.frame < frame) {
+            this.advance();
+        }
+        return Snapshot.decode(this.codes);
+    }
+
+    /**
+     * Advances to the next frame and returns it or {@code null} at the end of the
+     * log.
+     */
+    public Snapshot next() {
+        if (this.frame + 1L >= this.frames) {
+            return null;
+        }
+        this.advance();
+        return Snapshot.decode(this.codes);
+    }
+
+    /**
+     * Applies the frame at {@link #offset} to {@link #codes}.
+     */
+    private void advance() {
+        final MappedByteBuffer buffer = this.buffer;
+        int offset = this.offset;
+        final int tag = buffer.get(offset++) & 0xFF;
+        if (tag == Recorder.KEYFRAME) {
+            for (int square = 0; square < this.codes.length; square++) {
+                this.codes[square] = buffer.get(offset++);
+            }
+        } else {
+            for (int i = 0; i < tag; i++) {
+                this.codes[buffer.get(offset) & 0x3F] = buffer.get(offset + 1);
+                offset += 2;
+            }
+        }
+        this.offset = offset;
+        this.frame++;
+    }
+}
@@ -0,0 +1,189 @@
+package chess.internal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a sequence of snapshots to a compact binary log that {@link Player}
+ * replays.
+ * <p>
+ * The log starts with a header of four {@code int}s: {@link #MAGIC}, {@link
+ * #VERSION}, the keyframe interval and zero. Every frame is either a delta, one
+ * byte counting the changed squares followed by a pair of bytes per square
+ * holding its index and compact descriptor (see {@link Snapshot#encode(int)}),
+ * or a keyframe, the byte {@link #KEYFRAME} followed by the descriptors of all
+ * 64 squares. Every frame whose number is a multiple of the interval is a
+ * keyframe. {@link #close()} appends the offsets of all keyframes, the number of
+ * frames, the number of keyframes and {@link #INDEX_MAGIC}, whose last byte
+ * cannot end a frame, so a log missing its index, e.g. after a crash, is
+ * recognized and scanned instead.
+ * <p>
+ * Frames are buffered, but written out along with every keyframe and with the
+ * first frame recorded {@link #FLUSH_DELAY} milliseconds or more after the last
+ * write, so a crash loses at most the frames of the last such period.
+ */
+public final class Recorder implements Closeable {
+
+    public static final int MAGIC = 0x43485352;
+
+    public static final int INDEX_MAGIC = 0x43485349;
+
+    public static final int VERSION = 1;
+
+    public static final int DEFAULT_INTERVAL = 256;
+
+    /**
+     * The time in milliseconds after which buffered frames are written out with
+     * the next one.
+     */
+    public static final long FLUSH_DELAY = 1000L;
+
+    /**
+     * The tag of a keyframe; deltas are tagged with their length, at most 64.
+     */
+    static final int KEYFRAME = 0x80;
+
+    static final int HEADER = 16;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final int interval;
+
+    private long[] keyframes;
+
+    private long frames;
+
+    /**
+     * The offset of the next frame within the log.
+     */
+    private long offset;
+
+    private Snapshot previous;
+
+    /**
+     * The time in nanoseconds the buffer was last written out.
+     */
+    private long flushed;
+
+    /**
+     * Creates a log at {@code path} with a keyframe every {@link
+     * #DEFAULT_INTERVAL} frames, replacing any existing file.
+     */
+    public Recorder(final Path path) throws IOException {
+        this(path, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a log at {@code path}, replacing any existing file.
+     *
+     * @param path the file to write.
+     * @param interval the number of frames from one keyframe to the next; smaller
+     * values seek faster at the expense of space.
+     * @throws IOException thrown when {@code path} cannot be written.
+     * @throws IllegalArgumentException thrown when {@code interval < 1}.
+     */
+    public Recorder(final Path path, final int interval) throws IOException {
+        assert path != null : "path == null";
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval < 1");
+        }
+        this.interval = interval;
+        this.keyframes = new long[64];
+        this.buffer = ByteBuffer.allocate(1 << 16);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer.putInt(MAGIC).putInt(VERSION).putInt(interval).putInt(0);
+        this.offset = HEADER;
+        this.flushed = System.nanoTime();
+    }
+
+    /**
+     * Appends {@code snapshot} as the next frame.
+     *
+     * @throws IOException thrown when the log cannot be written.
+     */
+    public synchronized void record(final Snapshot snapshot) throws IOException {
+        assert snapshot != null : "snapshot == null";
+        if (!this.channel.isOpen()) {
+            throw new IOException("Recorder closed");
+        }
+        if (this.buffer.remaining() < 1 + 2 * Board.SIZE * Board.SIZE) {
+            this.flush();
+        }
+        final int start = this.buffer.position();
+        final boolean keyframe = this.frames % this.interval == 0L;
+        if (keyframe) {
+            final int index = (int) (this.frames / this.interval);
+            if (index == this.keyframes.length) {
+                this.keyframes = Arrays.copyOf(this.keyframes, index << 1);
+            }
+            this.keyframes[index] = this.offset;
+            this.buffer.put((byte) KEYFRAME);
+            for (int square = 0; square < Board.SIZE * Board.SIZE; square++) {
+                this.buffer.put(snapshot.encode(square));
+            }
+        } else {
+            final long changed = snapshot.diff(this.previous);
+            this.buffer.put((byte) Long.bitCount(changed));
+            for (long bits = changed; bits != 0L; bits &= bits - 1L) {
+                final int square = Long.numberOfTrailingZeros(bits);
+                this.buffer.put((byte) square).put(snapshot.encode(square));
+            }
+        }
+        this.offset += this.buffer.position() - start;
+        this.previous = snapshot;
+        this.frames++;
+        if (keyframe || System.nanoTime() - this.flushed >= FLUSH_DELAY * 1_000_000L) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Returns the number of frames recorded so far.
+     */
+    public synchronized long frames() {
+        return this.frames;
+    }
+
+    /**
+     * Writes the index and closes the log; further calls have no effect.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        try {
+            final int count = (int) ((this.frames + this.interval - 1) / this.interval);
+            for (int i = 0; i < count; i++) {
+                if (this.buffer.remaining() < Long.BYTES) {
+                    this.flush();
+                }
+                this.buffer.putLong(this.keyframes[i]);
+            }
+            if (this.buffer.remaining() < Long.BYTES + 2 * Integer.BYTES) {
+                this.flush();
+            }
+            this.buffer.putLong(this.frames).putInt(count).putInt(INDEX_MAGIC);
+            this.flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+        this.flushed = System.nanoTime();
+    }
+}
@@ -4,11 +4,15 @@ import javax.swing.JPanel;
 import java.awt.Color;
 import java.awt.EventQueue;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Rectangle;
-import java.awt.RenderingHints;
-import java.awt.geom.Rectangle2D;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
 
 public class Renderer extends JPanel {
 
@@ -16,19 +20,131 @@ public class Renderer extends JPanel {
 
     public static final Font FONT = Font.decode("Dialog-14-BOLD");
 
+    /**
+     * The uptime of the virtual machine in milliseconds when the first frame was
+     * painted or {@code -1} if none has been painted yet.
+     */
+    private static volatile long firstFrameTime = -1L;
+
+    /**
+     * Returns the uptime of the virtual machine in milliseconds when the first
+     * frame was painted onto the screen or {@code -1} if none has been painted yet.
+     */
+    public static long getFirstFrameTime() {
+        return firstFrameTime;
+    }
+
+    /**
+     * Paints {@code snapshot} centered onto an area of {@code width} by {@code
+     * height} pixels, skipping every square outside the clip of {@code graphics}.
+     * <p>
+     * The method neither depends on a component nor on the event dispatch thread,
+     * thus may be used to render offscreen as long as {@code sprites} is confined
+     * to the calling thread.
+     *
+     * @param graphics the context to paint with.
+     * @param snapshot the position to paint.
+     * @param width the width of the area to paint in pixels.
+     * @param height the height of the area to paint in pixels.
+     * @param sprites the cache to obtain scaled icons and board layers from.
+     * @param configuration the configuration of the destination device or {@code
+     * null} if unknown.
+     * @return the bitboard of all squares painted.
+     */
+    public static long paint(final Graphics2D graphics,
+                             final Snapshot snapshot,
+                             final int width,
+                             final int height,
+                             final SpriteCache sprites,
+                             final GraphicsConfiguration configuration) {
+        assert graphics != null : "graphics == null";
+        assert snapshot != null : "snapshot == null";
+        assert sprites != null : "sprites == null";
+        final int size = snapshot.size;
+        final int length = getTileLength(size, width, height);
+        if (length <= 0) {
+            return 0L;
+        }
+        final int offsetX = (width - size * length) / 2;
+        final int offsetY = (height - size * length) / 2;
+        // the plain checkerboard at once, the highlighted tiles and pieces on top
+        graphics.drawImage(sprites.layer(size, length, false, configuration), offsetX, offsetY, null);
+        final Rectangle clip = graphics.getClipBounds();
+        long painted = 0L;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                final int x = offsetX + i * length;
+                final int y = offsetY + j * length;
+                if (clip != null && !clip.intersects(x, y, length, length)) {
+                    continue;
+                }
+                painted |= 1L << snapshot.bit(i, j);
+                final Square square = snapshot.get(i, j);
+                if (square.highlight) {
+                    final int sx = i * length;
+                    final int sy = j * length;
+                    graphics.drawImage(sprites.layer(size, length, true, configuration),
+                            x, y, x + length, y + length, sx, sy, sx + length, sy + length, null);
+                }
+                final BufferedImage sprite = sprites.get(square, length, configuration);
+                if (sprite != null) {
+                    graphics.drawImage(sprite, x, y, null);
+                }
+            }
+        }
+        return painted;
+    }
+
+    /**
+     * Returns the edge length of a single square in pixels when painting {@code
+     * size} by {@code size} squares onto an area of {@code width} by {@code
+     * height} pixels.
+     */
+    public static int getTileLength(final int size, final int width, final int height) {
+        return Math.min(width / size, height / size);
+    }
+
     private final Board board;
 
+    private final SpriteCache sprites;
+
+    private final History history;
+
+    private final Animator animator;
+
+    private final Commands commands;
+
     private String desc;
 
+    /**
+     * The bit index of the square clicked first for a move or {@code -1} if
+     * there is none.
+     */
+    private int selection;
+
     public Renderer() {
         super(null, true);
         assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
         this.board = new Board(new String[Board.SIZE][Board.SIZE]);
+        this.sprites = new SpriteCache();
+        this.history = new History();
+        this.animator = new Animator(this);
+        this.commands = new Commands();
         this.desc = ">  ";
+        this.selection = -1;
         this.setBackground(BACKGROUND);
         this.setFont(FONT);
+        this.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(final ComponentEvent event) {
+                Renderer.this.sprites.invalidate();
+            }
+        });
     }
 
+    /**
+     * Sets the text shown in the upper left corner; an empty one hides it.
+     */
     public void update(final String desc) {
         assert desc != null : "desc == null";
         assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
@@ -40,48 +156,147 @@ public class Renderer extends JPanel {
         super.paintComponent(context);
         assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
         assert context != null : "context == null";
+        final long start = System.nanoTime();
         final Graphics2D graphics = (Graphics2D) context;
-        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT);
-        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        final long painted = paint(graphics, this.board.snapshot(), this.getWidth(), this.getHeight(),
+                this.sprites, this.getGraphicsConfiguration());
+        this.animator.paint(graphics, this.sprites, this.getGraphicsConfiguration());
+        if (this.selection >= 0) {
+            final int size = this.board.size;
+            final Rectangle tile = this.getTile(this.selection % size, this.selection / size);
+            graphics.setPaint(Square.LIGHT_HIGHLIGHT);
+            graphics.drawRect(tile.x, tile.y, tile.width - 1, tile.height - 1);
+            graphics.drawRect(tile.x + 1, tile.y + 1, tile.width - 3, tile.height - 3);
+        }
+        if (firstFrameTime < 0L) {
+            firstFrameTime = ManagementFactory.getRuntimeMXBean().getUptime();
+        }
+        this.board.clean(painted);
+        if (!this.desc.isEmpty()) {
+            final FontMetrics metrics = graphics.getFontMetrics();
+            final int fW = metrics.stringWidth(this.desc);
+            final int fH = metrics.getHeight();
+            graphics.setPaint(Color.RED);
+            graphics.fillRect(8, 8, fW, fH);
+            graphics.setPaint(Color.WHITE);
+            graphics.drawString(this.desc, 8, 4 + fH);
+        }
+        Metrics.PAINT.recordSince(start);
+    }
+
+    /**
+     * Returns the edge length of a single square in pixels.
+     */
+    public int getTileLength() {
+        return getTileLength(this.board.size, this.getWidth(), this.getHeight());
+    }
+
+    /**
+     * Returns the bounds of the square at {@code (x, y)} within {@code this}.
+     */
+    public Rectangle getTile(final int x, final int y) {
         final int size = this.board.size;
-        final int width = this.getWidth();
-        final int height = this.getHeight();
-        final int length = Math.min(width / size, height / size);
-        final int offsetX = (width - size * length) / 2;
-        final int offsetY = (height - size * length) / 2;
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                final boolean even = (i + j) % 2 == 0;
-                final Square square = this.board.get(i, j);
-                final Color light, dark;
-                if (square.highlight) {
-                    light = Square.LIGHT_HIGHLIGHT;
-                    dark = Square.DARK_HIGHLIGHT;
-                } else {
-                    light = Square.LIGHT;
-                    dark = Square.DARK;
-                }
-                final int x = offsetX + i * length;
-                final int y = offsetY + j * length;
-                graphics.setPaint(even ? light : dark);
-                graphics.fillRect(x, y, length, length);
-                graphics.setPaint(even ? dark : light);
-                graphics.drawString((" " + i + "," + j).intern(), x, y + graphics.getFontMetrics().getHeight());
-                graphics.drawImage(square.icon, x, y, length, length, null);
-            }
+        final int length = this.getTileLength();
+        final int offsetX = (this.getWidth() - size * length) / 2;
+        final int offsetY = (this.getHeight() - size * length) / 2;
+        return new Rectangle(offsetX + x * length, offsetY + y * length, length, length);
+    }
+
+    /**
+     * Returns the bit index of the square at pixel {@code (x, y)} within {@code
+     * this} or {@code -1} if there is none, the inverse of {@link #getTile(int,
+     * int)}.
+     */
+    public int getSquare(final int x, final int y) {
+        final int size = this.board.size;
+        final int length = this.getTileLength();
+        if (length <= 0) {
+            return -1;
+        }
+        final int offsetX = (this.getWidth() - size * length) / 2;
+        final int offsetY = (this.getHeight() - size * length) / 2;
+        if (x < offsetX || y < offsetY || x >= offsetX + size * length || y >= offsetY + size * length) {
+            return -1;
         }
-        final int fW = graphics.getFontMetrics().stringWidth(this.desc);
-        final int fH = graphics.getFontMetrics().getHeight();
-        graphics.setPaint(Color.RED);
-        graphics.fillRect(8, 8, fW, fH);
-        graphics.setPaint(Color.WHITE);
-        graphics.drawString(this.desc, 8, 4 + fH);
+        return (y - offsetY) / length * size + (x - offsetX) / length;
     }
 
-    public Board getBoard() {
+    /**
+     * Handles a click at pixel {@code (x, y)}: the first click onto a square
+     * selects it, the second one onto another square turns both into a move;
+     * clicking the selected square again or beside the board deselects it.
+     *
+     * @return the move or {@code null} if the click completed none.
+     */
+    public MoveCommand click(final int x, final int y) {
         assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
+        final int square = this.getSquare(x, y);
+        final int size = this.board.size;
+        final int previous = this.selection;
+        MoveCommand result = null;
+        if (square < 0 || square == previous) {
+            this.selection = -1;
+        } else if (previous < 0) {
+            this.selection = square;
+        } else {
+            this.selection = -1;
+            result = new MoveCommand(previous % size, previous / size, square % size, square / size,
+                    MoveCommand.Source.MOUSE);
+        }
+        if (previous >= 0) {
+            this.repaint(this.getTile(previous % size, previous / size));
+        }
+        if (this.selection >= 0) {
+            this.repaint(this.getTile(this.selection % size, this.selection / size));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the moves entered on {@code this}; may be called from any thread.
+     */
+    public Commands getCommands() {
+        return this.commands;
+    }
+
+    /**
+     * Schedules a repaint of every square set in {@code squares}, leaving the
+     * remaining squares untouched.
+     *
+     * @param squares a bitboard of the squares to repaint.
+     */
+    public void repaint(final long squares) {
+        final int size = this.board.size;
+        for (long bits = squares; bits != 0L; bits &= bits - 1L) {
+            final int index = Long.numberOfTrailingZeros(bits);
+            this.repaint(this.getTile(index % size, index / size));
+        }
+    }
+
+    /**
+     * Returns the snapshots displayed by {@code this} so far.
+     */
+    public History getHistory() {
+        assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
+        return this.history;
+    }
+
+    /**
+     * Returns the animator sliding the pieces of {@code this} from one position to
+     * the next.
+     */
+    public Animator getAnimator() {
+        assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
+        return this.animator;
+    }
+
+    /**
+     * Returns the board displayed by {@code this}.
+     * <p>
+     * Unlike the remaining methods, this one may be called from any thread, as
+     * {@link Board} publishes its positions atomically.
+     */
+    public Board getBoard() {
         return this.board;
     }
 }
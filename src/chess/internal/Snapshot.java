@@ -0,0 +1,341 @@
+package chess.internal;
+
+/**
+ * An immutable view of the contents of a {@link Board} at a single point in
+ * time.
+ * <p>
+ * Instances may be shared freely between threads; every query observes the
+ * very same position.
+ */
+public final class Snapshot {
+
+    /**
+     * The mask selecting the figure from a compact descriptor, where {@code 0}
+     * denotes an empty square and {@code i + 1} the {@code i}-th element of
+     * {@link Square#FIGURES}.
+     */
+    public static final int FIGURE_MASK = 0x07;
+
+    /**
+     * The bit of a compact descriptor denoting a black figure.
+     */
+    public static final int BLACK = 0x08;
+
+    /**
+     * The bit of a compact descriptor denoting a highlighted square.
+     */
+    public static final int HIGHLIGHT = 0x10;
+
+    /**
+     * Parses {@code source} into a new instance of the underlying {@code class}.
+     * <p>
+     * Unknown descriptors are reported and replaced by empty squares.
+     *
+     * @param source an eight by eight array describing the contents of the result.
+     * @throws IllegalArgumentException thrown when {@code source} is invalid in any way.
+     */
+    public static Snapshot parse(final String[][] source) {
+        if (source != null && source.length == Board.SIZE) {
+            final int size = source.length;
+            final Square[] squares = new Square[size * size];
+            final long[] pieces = new long[Square.KINDS];
+            long highlights = 0L;
+            for (int i = 0; i < size; i++) {
+                final String[] chunk = source[i];
+                if (chunk != null && chunk.length == Board.SIZE) {
+                    for (int j = 0; j < size; j++) {
+                        final String str = chunk[j];
+                        final Square square;
+                        if (Square.validate(str)) {
+                            square = Square.create(str);
+                        } else {
+                            System.err.println("Die Koordinate (" + i + "," + j + ")"
+                                    + " beinhaltet die unbekannte Bezeichnung \""
+                                    + str + "\"");
+                            square = Square.create(null);
+                        }
+                        final int index = j * size + i;
+                        squares[index] = square;
+                        if (square.kind >= 0) {
+                            pieces[square.kind] |= 1L << index;
+                        }
+                        if (square.highlight) {
+                            highlights |= 1L << index;
+                        }
+                    }
+                } else {
+                    throw new IllegalArgumentException("source[" + i
+                            + "] == null || source[" + i + "].length != 8");
+                }
+            }
+            return new Snapshot(size, squares, pieces, highlights);
+        } else {
+            throw new IllegalArgumentException("source == null || source.length != 8");
+        }
+    }
+
+    /**
+     * Decodes {@code source} into a new instance of the underlying {@code class}
+     * without creating any intermediate object.
+     * <p>
+     * Each element describes the square at {@code (index % 8, index / 8)} as a
+     * combination of a figure selected by {@link #FIGURE_MASK}, {@link #BLACK}
+     * and {@link #HIGHLIGHT}; the team is ignored for empty squares.
+     *
+     * @param source an array of 64 compact descriptors.
+     * @throws IllegalArgumentException thrown when {@code source} is invalid in any way.
+     */
+    public static Snapshot decode(final byte[] source) {
+        final int size = Board.SIZE;
+        if (source == null || source.length != size * size) {
+            throw new IllegalArgumentException("source == null || source.length != 64");
+        }
+        final int count = Square.FIGURES.length();
+        final Square[] squares = new Square[source.length];
+        final long[] pieces = new long[Square.KINDS];
+        long highlights = 0L;
+        for (int index = 0; index < source.length; index++) {
+            final int code = source[index];
+            final int figure = code & FIGURE_MASK;
+            if ((code & ~(FIGURE_MASK | BLACK | HIGHLIGHT)) != 0 || figure > count) {
+                throw new IllegalArgumentException("source[" + index + "] == " + code);
+            }
+            final boolean highlight = (code & HIGHLIGHT) != 0;
+            int kind = -1;
+            if (figure != 0) {
+                kind = ((code & BLACK) != 0 ? count : 0) + figure - 1;
+                pieces[kind] |= 1L << index;
+            }
+            if (highlight) {
+                highlights |= 1L << index;
+            }
+            squares[index] = Square.valueOf(kind, highlight);
+        }
+        return new Snapshot(size, squares, pieces, highlights);
+    }
+
+    /**
+     * Creates a new instance of the underlying {@code class} from bitboards.
+     *
+     * @param source {@link Square#KINDS} bitboards indexed by {@link Square#kind}
+     * followed by the bitboard of all highlighted squares; bit {@code 8 * y + x}
+     * denotes the square at {@code (x, y)}.
+     * @throws IllegalArgumentException thrown when {@code source} is invalid in any
+     * way, e.g. when two bitboards share a square.
+     */
+    public static Snapshot of(final long[] source) {
+        if (source == null || source.length != Square.KINDS + 1) {
+            throw new IllegalArgumentException("source == null || source.length != " + (Square.KINDS + 1));
+        }
+        final int size = Board.SIZE;
+        final long[] pieces = new long[Square.KINDS];
+        System.arraycopy(source, 0, pieces, 0, pieces.length);
+        final long highlights = source[Square.KINDS];
+        long occupancy = 0L;
+        for (int kind = 0; kind < pieces.length; kind++) {
+            if ((occupancy & pieces[kind]) != 0L) {
+                throw new IllegalArgumentException("source[" + kind + "] overlaps a preceding bitboard");
+            }
+            occupancy |= pieces[kind];
+        }
+        final Square[] squares = new Square[size * size];
+        for (int index = 0; index < squares.length; index++) {
+            squares[index] = Square.valueOf(-1, (highlights >>> index & 1L) != 0L);
+        }
+        for (int kind = 0; kind < pieces.length; kind++) {
+            for (long bits = pieces[kind]; bits != 0L; bits &= bits - 1L) {
+                final int index = Long.numberOfTrailingZeros(bits);
+                squares[index] = Square.valueOf(kind, (highlights >>> index & 1L) != 0L);
+            }
+        }
+        return new Snapshot(size, squares, pieces, highlights);
+    }
+
+    private final Square[] squares;
+
+    /**
+     * One bitboard per team and figure, indexed by {@link Square#kind}. Bit
+     * {@code y * size + x} is set when the square at {@code (x, y)} holds the
+     * respective figure.
+     */
+    private final long[] pieces;
+
+    private final long highlights;
+
+    public final int size;
+
+    /**
+     * Constructs a new instance of the underlying {@code class} taking ownership
+     * of the arrays passed in.
+     */
+    private Snapshot(final int size,
+                     final Square[] squares,
+                     final long[] pieces,
+                     final long highlights) {
+        assert size * size <= Long.SIZE : "size > 8";
+        assert squares.length == size * size : "squares.length != size * size";
+        this.size = size;
+        this.squares = squares;
+        this.pieces = pieces;
+        this.highlights = highlights;
+    }
+
+    public Square get(final int x, final int y) {
+        return this.squares[this.bit(x, y)];
+    }
+
+    /**
+     * Returns a copy of {@code this} in which the square at {@code (x, y)} is
+     * replaced by {@code value}.
+     */
+    public Snapshot with(final int x, final int y, final Square value) {
+        assert value != null : "value == null";
+        final int index = this.bit(x, y);
+        final long mask = 1L << index;
+        final Square previous = this.squares[index];
+        final Square[] squares = this.squares.clone();
+        final long[] pieces = this.pieces.clone();
+        if (previous != null && previous.kind >= 0) {
+            pieces[previous.kind] &= ~mask;
+        }
+        if (value.kind >= 0) {
+            pieces[value.kind] |= mask;
+        }
+        squares[index] = value;
+        final long highlights = value.highlight
+                ? this.highlights | mask
+                : this.highlights & ~mask;
+        return new Snapshot(this.size, squares, pieces, highlights);
+    }
+
+    /**
+     * Returns the bitboard of all squares whose contents differ between {@code
+     * this} and {@code other}, taking highlighting into account.
+     *
+     * @param other the position to compare with or {@code null} to mark every
+     * square as changed.
+     */
+    public long diff(final Snapshot other) {
+        if (other == null || other.size != this.size) {
+            return this.mask();
+        }
+        long result = this.highlights ^ other.highlights;
+        for (int i = 0; i < this.pieces.length; i++) {
+            result |= this.pieces[i] ^ other.pieces[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the compact descriptor of the square at bit {@code index}, as
+     * accepted by {@link #decode(byte[])}.
+     */
+    public byte encode(final int index) {
+        final Square square = this.squares[index];
+        if (square == null) {
+            return 0;
+        }
+        final int count = Square.FIGURES.length();
+        int result = square.highlight ? HIGHLIGHT : 0;
+        if (square.kind >= 0) {
+            result |= (square.kind >= count ? BLACK : 0) | (square.kind % count + 1);
+        }
+        return (byte) result;
+    }
+
+    /**
+     * Returns the compact descriptors of every square, i.e. the inverse of {@link
+     * #decode(byte[])}.
+     */
+    public byte[] encode() {
+        final byte[] result = new byte[this.squares.length];
+        for (int index = 0; index < result.length; index++) {
+            result[index] = this.encode(index);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the bitboard of all squares occupied by {@code figure} of {@code team}.
+     *
+     * @param team the team in question.
+     * @param figure the figure in question.
+     */
+    public long pieces(final Team team, final char figure) {
+        final int kind = Square.indexOf(team, figure);
+        return kind >= 0 ? this.pieces[kind] : 0L;
+    }
+
+    /**
+     * Returns the bitboard of all squares occupied by a figure of {@code team}.
+     *
+     * @param team the team in question.
+     */
+    public long occupancy(final Team team) {
+        assert team != null : "team == null";
+        if (Team.NONE.equals(team)) {
+            return ~this.occupancy() & this.mask();
+        }
+        final int from = team.ordinal() * Square.FIGURES.length();
+        final int to = from + Square.FIGURES.length();
+        long result = 0L;
+        for (int i = from; i < to; i++) {
+            result |= this.pieces[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the bitboard of all occupied squares.
+     */
+    public long occupancy() {
+        long result = 0L;
+        for (final long bits : this.pieces) {
+            result |= bits;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the bitboard of all highlighted squares.
+     */
+    public long highlights() {
+        return this.highlights;
+    }
+
+    /**
+     * Returns the bitboard with every square of {@code this} set.
+     */
+    public long mask() {
+        final int count = this.size * this.size;
+        return count >= Long.SIZE ? -1L : (1L << count) - 1L;
+    }
+
+    /**
+     * Returns the index of the bit denoting {@code (x, y)} on a bitboard.
+     */
+    public int bit(final int x, final int y) {
+        assert x >= 0 && x < this.size : "x < 0 || x >= this.size";
+        assert y >= 0 && y < this.size : "y < 0 || y >= this.size";
+        return y * this.size + x;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder out =
+                new StringBuilder(this.size * (this.size + 3) + 2 * this.squares.length);
+        for (int y = 0; y < this.size; y++) {
+            for (int x = 0; x < this.size; x++) {
+                final Square piece = this.get(x, y);
+                out.append('|');
+                if (piece != null) {
+                    out.append(piece.team).append(piece.figure);
+                } else {
+                    out.append("  ");
+                }
+            }
+            out.append('|').append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
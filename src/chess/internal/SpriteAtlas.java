@@ -0,0 +1,100 @@
+package chess.internal;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An immutable set of the full-resolution icons of every team and figure,
+ * indexed by {@link Square#kind}.
+ */
+public final class SpriteAtlas {
+
+    /**
+     * Decodes every icon, using up to one thread per icon.
+     *
+     * @throws IllegalArgumentException thrown when an icon could not be loaded.
+     */
+    public static SpriteAtlas load() {
+        final long start = System.nanoTime();
+        final int threads = Math.max(1, Math.min(Square.KINDS, Runtime.getRuntime().availableProcessors()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, (final Runnable task) -> {
+            final Thread thread = new Thread(task, "SpriteAtlas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            final CompletableFuture<BufferedImage>[] futures = new CompletableFuture[Square.KINDS];
+            for (int kind = 0; kind < futures.length; kind++) {
+                final int index = kind;
+                futures[kind] = CompletableFuture.supplyAsync(() -> read(index), executor);
+            }
+            final BufferedImage[] icons = new BufferedImage[futures.length];
+            for (int kind = 0; kind < futures.length; kind++) {
+                icons[kind] = futures[kind].join();
+            }
+            return new SpriteAtlas(icons, System.nanoTime() - start);
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) ex.getCause();
+            }
+            throw ex;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Decodes the icon of {@code kind} on the calling thread.
+     *
+     * @param kind the index as returned by {@link Square#indexOf(Team, char)}.
+     * @throws IllegalArgumentException thrown when the icon could not be loaded.
+     */
+    public static BufferedImage read(final int kind) {
+        assert kind >= 0 && kind < Square.KINDS : "kind < 0 || kind >= Square.KINDS";
+        final int count = Square.FIGURES.length();
+        final String path = "/" + Team.values()[kind / count] + Square.FIGURES.charAt(kind % count) + ".png";
+        try (final InputStream in = SpriteAtlas.class.getResourceAsStream(path)) {
+            // buffer in memory rather than in a temporary file
+            final BufferedImage icon = in != null ? ImageIO.read(new MemoryCacheImageInputStream(in)) : null;
+            if (icon == null) {
+                throw new IllegalArgumentException("Could not load resource at \"" + path + "\"");
+            }
+            return icon;
+        } catch (final IOException ex) {
+            throw new IllegalArgumentException("Could not load resource at \"" + path + "\"", ex);
+        }
+    }
+
+    private final BufferedImage[] icons;
+
+    private final long loadTime;
+
+    private SpriteAtlas(final BufferedImage[] icons, final long loadTime) {
+        this.icons = icons;
+        this.loadTime = loadTime;
+    }
+
+    /**
+     * Returns the icon of {@code kind}.
+     *
+     * @param kind the index as returned by {@link Square#indexOf(Team, char)}.
+     */
+    public BufferedImage get(final int kind) {
+        return this.icons[kind];
+    }
+
+    /**
+     * Returns the time it took to decode every icon in nanoseconds.
+     */
+    public long getLoadTime() {
+        return this.loadTime;
+    }
+}
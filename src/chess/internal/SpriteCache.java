@@ -0,0 +1,192 @@
+package chess.internal;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * A cache of piece icons and board layers scaled to a single tile size.
+ * <p>
+ * Each icon is scaled once per tile size and kept in an image compatible with
+ * the display, so that painting it boils down to a plain blit. The same holds
+ * for the checkerboard including the coordinate labels, which is rendered once
+ * with plain and once with highlighted tiles. Requesting a different tile size
+ * drops every image created so far.
+ * <p>
+ * Instances are not thread-safe and are meant to be confined to a single
+ * thread, usually the event dispatch thread.
+ */
+public class SpriteCache {
+
+    /**
+     * The coordinate labels drawn onto the tiles, indexed by {@code x * 8 + y}.
+     */
+    private static final String[] LABELS = new String[Long.SIZE];
+
+    static {
+        for (int x = 0; x < Board.SIZE; x++) {
+            for (int y = 0; y < Board.SIZE; y++) {
+                LABELS[x * Board.SIZE + y] = " " + x + "," + y;
+            }
+        }
+    }
+
+    /**
+     * The sprites scaled to {@link #length}, indexed by {@link Square#kind}.
+     */
+    private final BufferedImage[] sprites;
+
+    /**
+     * The plain and the highlighted board layer scaled to {@link #length} or
+     * {@code null} if not rendered yet.
+     */
+    private final BufferedImage[] layers;
+
+    private int length;
+
+    /**
+     * The number of tiles per row of {@link #layers}.
+     */
+    private int size;
+
+    public SpriteCache() {
+        this.sprites = new BufferedImage[Square.KINDS];
+        this.layers = new BufferedImage[2];
+        this.length = -1;
+    }
+
+    /**
+     * Returns the icon of {@code square} scaled to {@code length} pixels or
+     * {@code null} if {@code square} is empty.
+     *
+     * @param square the square whose icon to return.
+     * @param length the edge length of a tile in pixels.
+     * @param configuration the configuration of the destination device or {@code
+     * null} if unknown.
+     */
+    public BufferedImage get(final Square square,
+                             final int length,
+                             final GraphicsConfiguration configuration) {
+        assert square != null : "square == null";
+        if (square.icon == null || square.kind < 0 || length <= 0) {
+            return null;
+        }
+        if (length != this.length) {
+            this.invalidate();
+            this.length = length;
+        }
+        BufferedImage sprite = this.sprites[square.kind];
+        if (sprite == null) {
+            sprite = scale(square.icon, length, configuration);
+            this.sprites[square.kind] = sprite;
+        }
+        return sprite;
+    }
+
+    /**
+     * Returns the checkerboard of {@code size} by {@code size} tiles of {@code
+     * length} pixels each, including the coordinate labels.
+     *
+     * @param size the number of tiles per row.
+     * @param length the edge length of a tile in pixels.
+     * @param highlight whether to return the layer with highlighted tiles.
+     * @param configuration the configuration of the destination device or {@code
+     * null} if unknown.
+     */
+    public BufferedImage layer(final int size,
+                               final int length,
+                               final boolean highlight,
+                               final GraphicsConfiguration configuration) {
+        assert size > 0 && size <= Board.SIZE : "size <= 0 || size > Board.SIZE";
+        assert length > 0 : "length <= 0";
+        if (length != this.length) {
+            this.invalidate();
+            this.length = length;
+        }
+        if (size != this.size) {
+            flush(this.layers);
+            this.size = size;
+        }
+        final int index = highlight ? 1 : 0;
+        BufferedImage layer = this.layers[index];
+        if (layer == null) {
+            layer = render(size, length, highlight, configuration);
+            this.layers[index] = layer;
+        }
+        return layer;
+    }
+
+    /**
+     * Drops every image created so far, e.g. when the tile size has changed.
+     */
+    public void invalidate() {
+        flush(this.sprites);
+        flush(this.layers);
+        this.length = -1;
+    }
+
+    private static void flush(final BufferedImage[] images) {
+        for (int i = 0; i < images.length; i++) {
+            if (images[i] != null) {
+                images[i].flush();
+                images[i] = null;
+            }
+        }
+    }
+
+    private static BufferedImage render(final int size,
+                                        final int length,
+                                        final boolean highlight,
+                                        final GraphicsConfiguration configuration) {
+        final int extent = size * length;
+        final BufferedImage result = configuration != null
+                ? configuration.createCompatibleImage(extent, extent, Transparency.OPAQUE)
+                : new BufferedImage(extent, extent, BufferedImage.TYPE_INT_RGB);
+        final Color light = highlight ? Square.LIGHT_HIGHLIGHT : Square.LIGHT;
+        final Color dark = highlight ? Square.DARK_HIGHLIGHT : Square.DARK;
+        final Graphics2D graphics = result.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT);
+            graphics.setFont(Renderer.FONT);
+            final FontMetrics metrics = graphics.getFontMetrics();
+            final int baseline = metrics.getHeight();
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    final boolean even = (x + y) % 2 == 0;
+                    graphics.setPaint(even ? light : dark);
+                    graphics.fillRect(x * length, y * length, length, length);
+                    graphics.setPaint(even ? dark : light);
+                    graphics.drawString(LABELS[x * Board.SIZE + y], x * length, y * length + baseline);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+
+    private static BufferedImage scale(final BufferedImage icon,
+                                       final int length,
+                                       final GraphicsConfiguration configuration) {
+        final BufferedImage result = configuration != null
+                ? configuration.createCompatibleImage(length, length, Transparency.TRANSLUCENT)
+                : new BufferedImage(length, length, BufferedImage.TYPE_INT_ARGB_PRE);
+        final Graphics2D graphics = result.createGraphics();
+        try {
+            graphics.setComposite(AlphaComposite.Src);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.drawImage(icon, 0, 0, length, length, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+}
@@ -1,17 +1,11 @@
 package chess.internal;
 
-import javax.imageio.ImageIO;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class Square {
 
-    public static final Map<String, Square> CACHE;
-
     public static final Color LIGHT;
 
     public static final Color DARK;
@@ -34,8 +28,76 @@ public class Square {
 
     public static final char KING = 'K';
 
+    /**
+     * The figures in the order used to index per-figure tables such as the
+     * bitboards held by {@link Board}.
+     */
+    public static final String FIGURES = "" + PAWN + KNIGHT + BISHOP + ROOK + QUEEN + KING;
+
+    /**
+     * The number of distinct team and figure combinations.
+     */
+    public static final int KINDS = 2 * 6;
+
+    /**
+     * The canonical instances indexed by the codes {@link #decode(String)} returns:
+     * {@code kind << 1 | highlight} for figures followed by the empty square and
+     * the highlighted empty square.
+     */
+    private static final AtomicReferenceArray<Square> CACHE;
+
+    /**
+     * The contents of {@link #CACHE} once every instance has been created by
+     * {@link #preload()}, which allows reading without any synchronisation.
+     */
+    private static volatile Square[] FROZEN;
+
+    private static final int EMPTY_CODE = KINDS << 1;
+
+    private static final int INVALID = 0;
+
+    private static final int WHITE = 1;
+
+    private static final int BLACK = 2;
+
+    private static final int NONE = 3;
+
+    private static final int HIGHLIGHT = 1;
+
+    private static final int MOVE = 2;
+
+    /**
+     * Maps the first character of a descriptor to {@link #WHITE}, {@link #BLACK},
+     * {@link #NONE} or {@link #INVALID}.
+     */
+    private static final byte[] TEAMS;
+
+    /**
+     * Maps a character to its index within {@link #FIGURES} plus one or to {@link
+     * #INVALID}.
+     */
+    private static final byte[] FIGURE_INDICES;
+
+    /**
+     * Maps a trailing character of a descriptor to {@link #HIGHLIGHT}, {@link
+     * #MOVE} or {@link #INVALID}.
+     */
+    private static final byte[] ATTRIBUTES;
+
     static {
-        CACHE = new HashMap<>(16, 1F);
+        CACHE = new AtomicReferenceArray<>(EMPTY_CODE + 2);
+        TEAMS = new byte[128];
+        TEAMS['W'] = TEAMS['w'] = WHITE;
+        TEAMS['S'] = TEAMS['s'] = BLACK;
+        TEAMS[' '] = TEAMS['X'] = TEAMS['x'] = NONE;
+        FIGURE_INDICES = new byte[128];
+        for (int i = 0; i < FIGURES.length(); i++) {
+            final char figure = FIGURES.charAt(i);
+            FIGURE_INDICES[figure] = FIGURE_INDICES[Character.toLowerCase(figure)] = (byte) (i + 1);
+        }
+        ATTRIBUTES = new byte[128];
+        ATTRIBUTES['H'] = ATTRIBUTES['h'] = HIGHLIGHT;
+        ATTRIBUTES['M'] = ATTRIBUTES['m'] = MOVE;
         LIGHT = new Color(238, 238, 211);
         DARK = new Color(124, 148, 88);
         LIGHT_HIGHLIGHT = new Color(223, 128, 108);
@@ -56,81 +118,164 @@ public class Square {
         }
     }
 
-    public static boolean validate(final String str) {
-        if (str != null) {
-            switch (str.length()) {
-                case 0:
-                    return true;
-                case 1:
-                    final char chr = str.charAt(0);
-                    return Team.NONE.equals(Team.parseLeniently(chr))
-                            || 'H' == chr
-                            || 'h' == chr;
-                case 2:
-                    Team team = Team.parseLeniently(str.charAt(0));
-                    if (Team.NONE.equals(team)) {
-                        final char type = str.charAt(1);
-                        return 'H' == type || 'h' == type;
-                    } else { 
-                        return (Team.WHITE.equals(team) || Team.BLACK.equals(team))
-                                && isFigure(str.charAt(1));
-                    }
-                case 3:
-                    team = Team.parseLeniently(str.charAt(0));
-                    char type = str.charAt(1);
-                    char attr = str.charAt(2);
-                    return (Team.WHITE.equals(team) || Team.BLACK.equals(team))
-                            && isFigure(type)
-                            && ('H' == attr || 'h' == attr || 'M' == attr || 'm' == attr);
-                case 4:
-                    team = Team.parseLeniently(str.charAt(0));
-                    type = str.charAt(1);
-                    char attr0 = str.charAt(2);
-                    char attr1 = str.charAt(2);
-                    return (Team.WHITE.equals(team) || Team.BLACK.equals(team))
-                            && isFigure(type)
-                            && ('H' == attr0 || 'h' == attr0 || 'M' == attr0 || 'm' == attr0)
-                            && ('H' == attr1 || 'h' == attr1 || 'M' == attr1 || 'm' == attr1);
-                default:
-                    return false;
-            }
+    /**
+     * Returns the index of the combination of {@code team} and {@code figure}
+     * within {@code [0, KINDS)} or {@code -1} for empty squares.
+     *
+     * @param team the team of the figure.
+     * @param figure the figure in question.
+     */
+    public static int indexOf(final Team team, final char figure) {
+        final int offset = FIGURES.indexOf(Character.toUpperCase(figure));
+        if (offset < 0 || team == null || Team.NONE.equals(team)) {
+            return -1;
         } else {
-            return true;
+            return team.ordinal() * FIGURES.length() + offset;
         }
     }
 
+    /**
+     * Returns the canonical instance denoting {@code kind} without allocating
+     * anything once its icon has been loaded.
+     *
+     * @param kind the index as returned by {@link #indexOf(Team, char)}, where
+     * negative values denote an empty square.
+     * @param highlight whether the square is highlighted.
+     */
+    public static Square valueOf(final int kind, final boolean highlight) {
+        assert kind < KINDS : "kind >= KINDS";
+        final int code = kind >= 0 ? kind << 1 : EMPTY_CODE;
+        return lookup(highlight ? code | 1 : code);
+    }
+
+    public static boolean validate(final String str) {
+        return decode(str) >= 0;
+    }
+
     public static Square create(final String str) {
-        final String qry = str != null ? str.replaceAll("[Mm]", "") : null;
-        if (qry != null && qry.length() > 1) {
+        final int code = decode(str);
+        // fallback to an empty square
+        return lookup(code >= 0 ? code : EMPTY_CODE);
+    }
+
+    /**
+     * Returns the canonical instance for {@code code}, loading its icon on first
+     * use; an icon that cannot be loaded yields an empty square instead.
+     */
+    private static Square lookup(final int code) {
+        final Square[] frozen = FROZEN;
+        if (frozen != null) {
+            return frozen[code];
+        }
+        final Square result = CACHE.get(code);
+        if (result != null) {
+            return result;
+        }
+        final Square value;
+        if (code >= EMPTY_CODE) {
+            value = new Square((code & 1) != 0);
+        } else {
+            // share the icon with the other highlighting if already loaded
+            final Square sibling = CACHE.get(code ^ 1);
             try {
-                final Team team = Team.parse(qry.charAt(0));
-                final char type = Character.toUpperCase(qry.charAt(1));
-                final boolean highlight = qry.endsWith("H") || qry.endsWith("h");
-                // highlight the square?
-                final String lookup = (team.toString() + type + (highlight ? "H" : "")).intern();
-                Square result = CACHE.get(lookup);
-                if (result == null && !Team.NONE.equals(team)) {
-                    result = new Square(team, type, highlight);
-                    CACHE.put(lookup, result);
-                } else if (result == null) {
-                    result = new Square(highlight);
-                    CACHE.put(lookup, result);
-                }
-                return result;
+                value = create(code, sibling != null ? sibling.icon : SpriteAtlas.read(code >> 1));
             } catch (final IllegalArgumentException ex) {
                 // fallback to an empty square
-                return create(null);
+                return lookup(EMPTY_CODE | (code & 1));
             }
-        } else {
-            final boolean highlight = "H".equals(qry) || "h".equals(qry);
-            final String lookup = (Square.EMPTY + (highlight ? "H" : "")).intern();
-            Square result = CACHE.get(lookup);
-            if (result == null) {
-                result = new Square(highlight);
-                CACHE.put(lookup, result);
+        }
+        // another thread may have been faster
+        return CACHE.compareAndSet(code, null, value) ? value : CACHE.get(code);
+    }
+
+    private static Square create(final int code, final BufferedImage icon) {
+        final int kind = code >> 1;
+        final int count = FIGURES.length();
+        return new Square(Team.values()[kind / count], FIGURES.charAt(kind % count), (code & 1) != 0, icon);
+    }
+
+    /**
+     * Decodes every icon in parallel and creates every canonical instance up front,
+     * so that no later call loads anything.
+     * <p>
+     * Afterwards the instances are read from an immutable table without any
+     * synchronisation. Calling the method more than once has no further effect.
+     *
+     * @return the time spent decoding icons in nanoseconds, which is zero if they
+     * had already been preloaded.
+     * @throws IllegalArgumentException thrown when an icon could not be loaded.
+     */
+    public static synchronized long preload() {
+        if (FROZEN != null) {
+            return 0L;
+        }
+        final SpriteAtlas atlas = SpriteAtlas.load();
+        final Square[] table = new Square[CACHE.length()];
+        for (int code = 0; code < table.length; code++) {
+            final Square value = code >= EMPTY_CODE
+                    ? new Square((code & 1) != 0)
+                    : create(code, atlas.get(code >> 1));
+            // keep instances handed out already to preserve their identity
+            CACHE.compareAndSet(code, null, value);
+            table[code] = CACHE.get(code);
+        }
+        FROZEN = table;
+        return atlas.getLoadTime();
+    }
+
+    /**
+     * Translates {@code str} into an index into {@link #CACHE} without allocating
+     * anything.
+     *
+     * @return the index or {@code -1} if {@code str} is invalid.
+     */
+    private static int decode(final String str) {
+        if (str == null) {
+            return EMPTY_CODE;
+        }
+        final int length = str.length();
+        if (length == 0) {
+            return EMPTY_CODE;
+        } else if (length > 4) {
+            return -1;
+        }
+        final int team = classify(TEAMS, str.charAt(0));
+        if (team == NONE) {
+            switch (length) {
+                case 1:
+                    return EMPTY_CODE;
+                case 2:
+                    return classify(ATTRIBUTES, str.charAt(1)) == HIGHLIGHT ? EMPTY_CODE | 1 : -1;
+                default:
+                    return -1;
             }
-            return result;
+        } else if (team == INVALID) {
+            return length == 1 && classify(ATTRIBUTES, str.charAt(0)) == HIGHLIGHT
+                    ? EMPTY_CODE | 1
+                    : -1;
+        }
+        if (length == 1) {
+            return -1;
+        }
+        final int figure = classify(FIGURE_INDICES, str.charAt(1));
+        if (figure == INVALID) {
+            return -1;
         }
+        int highlight = 0;
+        for (int i = 2; i < length; i++) {
+            final int attribute = classify(ATTRIBUTES, str.charAt(i));
+            if (attribute == INVALID) {
+                return -1;
+            } else if (attribute == HIGHLIGHT) {
+                highlight = 1;
+            }
+        }
+        final int kind = (team - WHITE) * FIGURES.length() + figure - 1;
+        return kind << 1 | highlight;
+    }
+
+    private static int classify(final byte[] table, final char chr) {
+        return chr < table.length ? table[chr] : INVALID;
     }
 
     public final Team team;
@@ -141,30 +286,29 @@ public class Square {
 
     public final BufferedImage icon;
 
+    /**
+     * The result of {@link #indexOf(Team, char)} for {@code this}.
+     */
+    public final int kind;
+
     private Square(final boolean highlight) {
         this.team = Team.NONE;
         this.figure = '\0';
         this.highlight = highlight;
+        this.kind = -1;
         this.icon = null;
     }
 
     private Square(final Team team,
                    final char figure,
-                   final boolean highlight) {
+                   final boolean highlight,
+                   final BufferedImage icon) {
         assert team != null : "team == null";
+        assert icon != null : "icon == null";
         this.team = team;
         this.figure = figure;
         this.highlight = highlight;
-        final String path = "/" + this.team + this.figure + ".png";
-        BufferedImage icon;
-        try (final InputStream in = Square.class.getResourceAsStream(path)) {
-            icon = in != null ? ImageIO.read(in) : null;
-            if (icon == null) {
-                throw new IllegalArgumentException("Could not load resource at \"" + path + "\"");
-            }
-        } catch (final IOException ex) {
-            throw new IllegalArgumentException("Could not load resource at \"" + path + "\"", ex);
-        }
+        this.kind = indexOf(team, figure);
         this.icon = icon;
     }
 
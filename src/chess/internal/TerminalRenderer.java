@@ -0,0 +1,260 @@
+package chess.internal;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Renders positions as text with ANSI escape sequences, e.g. to a terminal
+ * connected via SSH.
+ * <p>
+ * The first frame clears the screen and draws the whole board including its
+ * coordinates; every later frame only moves the cursor to the squares changed
+ * since and redraws them, omitting the move when the cursor is already in
+ * place. Each frame is assembled in a reused buffer and passed to the stream
+ * with a single write. Squares take the colours of {@link Square} mapped onto
+ * the 256 colour palette, pieces are drawn as Unicode chess symbols.
+ * <p>
+ * The rows below the board are made a scrolling region of their own, and every
+ * later frame restores the cursor to where it was, so that output written to
+ * the same terminal in between, e.g. by {@code System.out.println}, scrolls
+ * beneath the board instead of moving it. Should the board get out of place
+ * nonetheless, e.g. since the screen was cleared, {@link #redraw()} draws it
+ * anew; {@link #release()} hands the whole screen back.
+ */
+public final class TerminalRenderer {
+
+    private static final byte ESCAPE = 0x1B;
+
+    /**
+     * The number of columns per square.
+     */
+    private static final int WIDTH = 3;
+
+    /**
+     * The column of the first square, leaving room for the rank.
+     */
+    private static final int LEFT = 3;
+
+    /**
+     * The escape sequence and symbol of every square, indexed by {@code parity
+     * << 5 | code} where {@code code} is the compact descriptor as returned by
+     * {@link Snapshot#encode(int)}.
+     */
+    private static final byte[][] CELLS = new byte[2 << 5][];
+
+    private static final byte[] RESET = ascii("\u001B[0m");
+
+    private static final byte[] CLEAR = ascii("\u001B[H\u001B[2J");
+
+    private static final byte[] SAVE = ascii("\u001B7");
+
+    private static final byte[] RESTORE = ascii("\u001B8");
+
+    private static final byte[] ERASE_LINE = ascii("\u001B[K");
+
+    /**
+     * Resets the scrolling region to the whole screen.
+     */
+    private static final byte[] FULL_REGION = ascii("\u001B[r");
+
+    static {
+        final int[] backgrounds = {
+                indexOf(Square.LIGHT), indexOf(Square.DARK),
+                indexOf(Square.LIGHT_HIGHLIGHT), indexOf(Square.DARK_HIGHLIGHT)
+        };
+        for (int parity = 0; parity < 2; parity++) {
+            for (int code = 0; code < 1 << 5; code++) {
+                final int figure = code & Snapshot.FIGURE_MASK;
+                final boolean highlight = (code & Snapshot.HIGHLIGHT) != 0;
+                final int background = backgrounds[(highlight ? 2 : 0) | parity];
+                final StringBuilder cell = new StringBuilder(24).append("\u001B[48;5;").append(background);
+                if (figure > 0 && figure <= Square.FIGURES.length()) {
+                    // the filled symbols in the order of Square.FIGURES, coloured per team
+                    final char symbol = "♟♞♝♜♛♚".charAt(figure - 1);
+                    cell.append(";38;5;").append((code & Snapshot.BLACK) != 0 ? 16 : 231)
+                            .append("m ").append(symbol).append(' ');
+                } else {
+                    cell.append("m   ");
+                }
+                CELLS[parity << 5 | code] = cell.toString().getBytes(StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Returns the colour of the 6x6x6 cube of the 256 colour palette closest to
+     * {@code color}.
+     */
+    static int indexOf(final Color color) {
+        return 16 + 36 * level(color.getRed()) + 6 * level(color.getGreen()) + level(color.getBlue());
+    }
+
+    /**
+     * Maps a component onto the cube levels 0, 95, 135, 175, 215 and 255.
+     */
+    private static int level(final int value) {
+        return value < 48 ? 0 : value < 115 ? 1 : (value - 35) / 40;
+    }
+
+    private static byte[] ascii(final String str) {
+        return str.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private final OutputStream out;
+
+    private byte[] buffer;
+
+    private int length;
+
+    private Snapshot previous;
+
+    /**
+     * Whether the screen was taken over by the first frame.
+     */
+    private boolean started;
+
+    /**
+     * Constructs a new instance of the underlying {@code class}.
+     *
+     * @param out the stream to write to, usually {@code System.out}.
+     */
+    public TerminalRenderer(final OutputStream out) {
+        assert out != null : "out == null";
+        this.out = out;
+        this.buffer = new byte[1 << 12];
+    }
+
+    /**
+     * Draws {@code snapshot}, writing only the squares changed since the previous
+     * call.
+     *
+     * @param snapshot the position to draw.
+     * @throws IOException thrown when writing failed for any reason.
+     */
+    public synchronized void render(final Snapshot snapshot) throws IOException {
+        assert snapshot != null : "snapshot == null";
+        final int size = snapshot.size;
+        final long changed = snapshot.diff(this.previous);
+        if (changed == 0L) {
+            return;
+        }
+        this.length = 0;
+        final boolean full = this.previous == null || this.previous.size != size;
+        final boolean first = !this.started;
+        this.append(first ? CLEAR : SAVE);
+        if (full) {
+            // confines scrolling to the rows below the board
+            this.append(ESCAPE).append((byte) '[').appendNumber(size + 2).append((byte) 'r');
+            for (int y = 0; y < size; y++) {
+                this.moveTo(y, LEFT + WIDTH * size).append(ERASE_LINE).moveTo(y, 1);
+                this.append((byte) ('0' + size - y)).append((byte) ' ');
+            }
+            this.append(RESET).moveTo(size, 1).append(ERASE_LINE).append((byte) ' ').append((byte) ' ');
+            for (int x = 0; x < size; x++) {
+                this.append((byte) ' ').append((byte) ('a' + x)).append((byte) ' ');
+            }
+            this.moveTo(size + 1, 1).append(ERASE_LINE);
+        }
+        int next = -1;
+        for (long bits = changed; bits != 0L; bits &= bits - 1L) {
+            final int index = Long.numberOfTrailingZeros(bits);
+            final int x = index % size;
+            final int y = index / size;
+            if (index != next) {
+                this.moveTo(y, LEFT + WIDTH * x);
+            }
+            this.append(CELLS[((x + y) & 1) << 5 | snapshot.encode(index)]);
+            // the cursor rests on the next square unless this one ends the rank
+            next = x + 1 < size ? index + 1 : -1;
+        }
+        this.append(RESET);
+        if (first) {
+            // the first line of the scrolling region
+            this.moveTo(size + 1, 1);
+        } else {
+            this.append(RESTORE);
+        }
+        this.started = true;
+        this.previous = snapshot;
+        this.write();
+    }
+
+    /**
+     * Makes the next call to {@link #render(Snapshot)} draw the whole board.
+     */
+    public synchronized void reset() {
+        this.previous = null;
+    }
+
+    /**
+     * Draws the whole board again as shown by the last call to {@link
+     * #render(Snapshot)}, if any.
+     *
+     * @throws IOException thrown when writing failed for any reason.
+     */
+    public synchronized void redraw() throws IOException {
+        final Snapshot snapshot = this.previous;
+        this.previous = null;
+        if (snapshot != null) {
+            this.render(snapshot);
+        }
+    }
+
+    /**
+     * Lets output scroll across the whole screen again, e.g. before the program
+     * exits, while the cursor stays in place.
+     *
+     * @throws IOException thrown when writing failed for any reason.
+     */
+    public synchronized void release() throws IOException {
+        if (this.started) {
+            this.length = 0;
+            this.append(SAVE).append(FULL_REGION).append(RESTORE);
+            this.started = false;
+            this.previous = null;
+            this.write();
+        }
+    }
+
+    private void write() throws IOException {
+        this.out.write(this.buffer, 0, this.length);
+        this.out.flush();
+    }
+
+    /**
+     * Appends the sequence moving the cursor to the zero-based {@code row} and
+     * the one-based {@code column}.
+     */
+    private TerminalRenderer moveTo(final int row, final int column) {
+        this.append(ESCAPE).append((byte) '[').appendNumber(row + 1)
+                .append((byte) ';').appendNumber(column).append((byte) 'H');
+        return this;
+    }
+
+    private TerminalRenderer appendNumber(final int value) {
+        if (value >= 10) {
+            this.appendNumber(value / 10);
+        }
+        return this.append((byte) ('0' + value % 10));
+    }
+
+    private TerminalRenderer append(final byte value) {
+        if (this.length == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, this.length << 1);
+        }
+        this.buffer[this.length++] = value;
+        return this;
+    }
+
+    private TerminalRenderer append(final byte[] values) {
+        if (this.length + values.length > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.length + values.length, this.length << 1));
+        }
+        System.arraycopy(values, 0, this.buffer, this.length, values.length);
+        this.length += values.length;
+        return this;
+    }
+}
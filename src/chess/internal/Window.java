@@ -4,15 +4,21 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 
 public class Window extends KeyAdapter {
 
-    private static Window CURRENT = null;
+    private static volatile Window CURRENT = null;
 
     static {
         final String lookAndFeel = UIManager.getSystemLookAndFeelClassName();
@@ -26,29 +32,31 @@ public class Window extends KeyAdapter {
     }
 
     public static Window current() {
-        if (CURRENT == null) {
-            CURRENT = Window.create();
-        }
-        return CURRENT;
+        final Window current = CURRENT;
+        return current != null ? current : Window.create();
     }
 
     /**
-     * Constructs a new instance of the {@code class} while ensuring that
-     * initialisation occurs on the event dispatch thread.
+     * Constructs the single instance of the {@code class} unless that happened
+     * before, ensuring that initialisation occurs on the event dispatch thread.
      * <p>
-     * Please note that invoking the method outside the event dispatch thread
-     * requires the calling thread to wait.
+     * Since the event dispatch thread runs one task at a time, concurrent callers
+     * cannot construct more than one instance, without holding a lock the event
+     * dispatch thread might wait for. Please note that invoking the method
+     * outside the event dispatch thread requires the calling thread to wait.
      *
      * @throws IllegalStateException thrown when construction failed for any reason.
      */
     private static Window create() {
         if (EventQueue.isDispatchThread()) {
-            return new Window();
+            if (CURRENT == null) {
+                CURRENT = new Window();
+            }
+            return CURRENT;
         } else {
             try {
-                final Window[] result = new Window[1];
-                EventQueue.invokeAndWait(() -> result[0] = new Window());
-                return result[0];
+                EventQueue.invokeAndWait(Window::create);
+                return CURRENT;
             } catch (final InvocationTargetException | InterruptedException ex) {
                 throw new IllegalStateException("Unable to construct \""
                         + Window.class.getName() + " synchronously", ex);
@@ -58,15 +66,37 @@ public class Window extends KeyAdapter {
 
     private final JFrame peer;
 
-    private final Renderer renderer;
+    /**
+     * Lays out one tile per board.
+     */
+    private final JPanel grid;
+
+    private final List<Renderer> renderers;
+
+    /**
+     * The renderers handed out by {@link #attach()} and not yet detached.
+     */
+    private final Set<Renderer> attached;
+
+    private final PaintScheduler scheduler;
 
     private final StringBuilder data;
 
+    /**
+     * The renderer receiving key strokes, selected by clicking onto it.
+     */
+    private Renderer renderer;
+
     private Window() {
         assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
         this.peer = new JFrame("Chess");
-        this.renderer = new Renderer();
+        this.grid = new JPanel(new GridLayout(1, 1, 2, 2), true);
+        this.renderers = new ArrayList<>();
+        this.attached = new HashSet<>();
+        this.scheduler = new PaintScheduler();
         this.data = new StringBuilder(16);
+        this.grid.setBackground(Renderer.BACKGROUND);
+        this.createRenderer();
         this.peer.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         final Dimension maximum = GraphicsEnvironment.getLocalGraphicsEnvironment()
                 .getMaximumWindowBounds()
@@ -76,16 +106,61 @@ public class Window extends KeyAdapter {
         this.peer.setSize(size);
         this.peer.setMinimumSize(size);
         this.peer.setLocationRelativeTo(null);
-        this.peer.add(this.renderer);
+        this.peer.add(this.grid);
         this.peer.setAlwaysOnTop(true);
         this.peer.addKeyListener(this);
     }
 
+    /**
+     * Returns the selected renderer, which receives key strokes.
+     */
     public Renderer getRenderer() {
         assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
         return this.renderer;
     }
 
+    /**
+     * Returns a renderer of its own to the caller, adding a tile to the grid
+     * unless an unused one is left.
+     */
+    public Renderer attach() {
+        assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
+        for (final Renderer renderer : this.renderers) {
+            if (this.attached.add(renderer)) {
+                return renderer;
+            }
+        }
+        final Renderer result = this.createRenderer();
+        this.attached.add(result);
+        return result;
+    }
+
+    /**
+     * Returns {@code renderer} obtained from {@link #attach()}, removing its tile
+     * unless it is the last one; {@code null} is ignored.
+     *
+     * @return {@code true} if any renderer remains attached.
+     */
+    public boolean detach(final Renderer renderer) {
+        assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
+        if (this.attached.remove(renderer) && this.renderers.size() > 1) {
+            this.renderers.remove(renderer);
+            this.grid.remove(renderer);
+            if (this.renderer == renderer) {
+                this.select(this.renderers.get(0));
+            }
+            this.layout();
+        }
+        return !this.attached.isEmpty();
+    }
+
+    /**
+     * Returns the scheduler shared by all boards for their repaints.
+     */
+    public PaintScheduler getScheduler() {
+        return this.scheduler;
+    }
+
     public JFrame getPeer() {
         assert EventQueue.isDispatchThread() : "!EventQueue.isDispatchThread()";
         return this.peer;
@@ -103,8 +178,12 @@ public class Window extends KeyAdapter {
      */
     public void postSync(final Task<Window> task) {
         assert task != null : "task == null";
+        final long start = System.nanoTime();
         try {
-            EventQueue.invokeAndWait(() -> task.run(this));
+            EventQueue.invokeAndWait(() -> {
+                Metrics.QUEUE_WAIT.recordSince(start);
+                task.run(this);
+            });
         } catch (final InvocationTargetException | InterruptedException ex) {
             throw new IllegalStateException("Unable to post \"" + task + "\" synchronously", ex);
         }
@@ -125,7 +204,11 @@ public class Window extends KeyAdapter {
         assert task != null : "task == null";
         try {
             final Object[] result = new Object[1];
-            EventQueue.invokeAndWait(() -> result[0] = task.apply(this));
+            final long start = System.nanoTime();
+            EventQueue.invokeAndWait(() -> {
+                Metrics.QUEUE_WAIT.recordSince(start);
+                result[0] = task.apply(this);
+            });
             return (R) result[0];
         } catch (final InvocationTargetException | InterruptedException ex) {
             throw new IllegalStateException("Unable to post \"" + task + "\" synchronously", ex);
@@ -139,7 +222,9 @@ public class Window extends KeyAdapter {
      */
     public void postAsync(final Runnable task) {
         assert task != null : "task == null";
+        final long start = System.nanoTime();
         EventQueue.invokeLater(() -> {
+            Metrics.QUEUE_WAIT.recordSince(start);
             try {
                 task.run();
             } catch (final RuntimeException ex) {
@@ -156,7 +241,9 @@ public class Window extends KeyAdapter {
      */
     public void postAsync(final Task<Window> task) {
         assert task != null : "task == null";
+        final long start = System.nanoTime();
         EventQueue.invokeLater(() -> {
+            Metrics.QUEUE_WAIT.recordSince(start);
             try {
                 task.run(this);
             } catch (final RuntimeException ex) {
@@ -166,6 +253,85 @@ public class Window extends KeyAdapter {
         });
     }
 
+    private Renderer createRenderer() {
+        final Renderer result = new Renderer();
+        result.update("");
+        result.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(final MouseEvent event) {
+                Window.this.select(result);
+                final MoveCommand command = result.click(event.getX(), event.getY());
+                if (command != null) {
+                    result.getCommands().offer(command);
+                }
+            }
+        });
+        this.renderers.add(result);
+        this.grid.add(result);
+        if (this.renderer == null) {
+            this.select(result);
+        }
+        this.layout();
+        return result;
+    }
+
+    /**
+     * Directs key strokes to {@code renderer}, which shows the text typed so far.
+     */
+    private void select(final Renderer renderer) {
+        if (this.renderer != null) {
+            this.renderer.update("");
+            this.renderer.repaint();
+        }
+        this.renderer = renderer;
+        renderer.update("> " + this.data + " ");
+        renderer.repaint();
+    }
+
+    /**
+     * Arranges the tiles in a grid as close to a square as possible.
+     */
+    private void layout() {
+        final int count = this.renderers.size();
+        final int columns = (int) Math.ceil(Math.sqrt(count));
+        final int rows = (count + columns - 1) / columns;
+        this.grid.setLayout(new GridLayout(rows, columns, 2, 2));
+        this.grid.revalidate();
+        this.grid.repaint();
+    }
+
+    /**
+     * Steps through the {@link History} of the selected renderer: left and right
+     * move by one frame, home and end jump to the first and the most recent one.
+     */
+    @Override
+    public void keyPressed(final KeyEvent event) {
+        assert event != null : "event == null";
+        final History history = this.renderer.getHistory();
+        final int size = history.size();
+        final Snapshot snapshot;
+        switch (event.getKeyCode()) {
+            case KeyEvent.VK_LEFT:
+                snapshot = history.undo();
+                break;
+            case KeyEvent.VK_RIGHT:
+                snapshot = history.redo();
+                break;
+            case KeyEvent.VK_HOME:
+                snapshot = size > 0 ? history.seek(0) : null;
+                break;
+            case KeyEvent.VK_END:
+                snapshot = size > 0 ? history.seek(size - 1) : null;
+                break;
+            default:
+                return;
+        }
+        if (snapshot != null) {
+            this.renderer.getAnimator().skip();
+            this.renderer.repaint(this.renderer.getBoard().publish(snapshot));
+        }
+    }
+
     @Override
     public void keyTyped(final KeyEvent event) {
         assert event != null : "event == null";
@@ -174,8 +340,12 @@ public class Window extends KeyAdapter {
             this.data.deleteCharAt(this.data.length() - 1);
             this.renderer.repaint();
         } else if (ch == '\n') {
-            this.data.append('\n');
-            Pipeline.send(this.data.toString());
+            final MoveCommand command = MoveCommand.parse(this.data.toString(), MoveCommand.Source.KEYBOARD);
+            // moves go to the program directly once it asked for them
+            if (command == null || !this.renderer.getCommands().offer(command)) {
+                this.data.append('\n');
+                Pipeline.send(this.data.toString());
+            }
             this.data.delete(0, this.data.length());
             this.renderer.repaint();
         } else if (Character.isLetterOrDigit(ch)) {